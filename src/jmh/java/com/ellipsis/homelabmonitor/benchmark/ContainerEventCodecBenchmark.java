@@ -0,0 +1,88 @@
+package com.ellipsis.homelabmonitor.benchmark;
+
+import com.ellipsis.homelabmonitor.event.ContainerEvent;
+import com.ellipsis.homelabmonitor.kafka.ContainerEventDeserializer;
+import com.ellipsis.homelabmonitor.kafka.ContainerEventSerializer;
+import com.ellipsis.homelabmonitor.model.ContainerState;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Events/sec through the Kafka value (de)serializers: Spring's JsonSerializer, as the topic
+// used before, against the binary codec. Record size (value plus the type headers
+// JsonSerializer adds) is printed once per trial.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContainerEventCodecBenchmark {
+
+    private static final String TOPIC = "container-events";
+
+    private JsonSerializer<ContainerEvent> jsonSerializer;
+    private JsonDeserializer<ContainerEvent> jsonDeserializer;
+    private ContainerEventSerializer binarySerializer;
+    private ContainerEventDeserializer binaryDeserializer;
+
+    private ContainerEvent event;
+    private byte[] json;
+    private RecordHeaders jsonHeaders;
+    private byte[] binary;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jsonSerializer = new JsonSerializer<>();
+        jsonDeserializer = new JsonDeserializer<>(ContainerEvent.class);
+        jsonDeserializer.addTrustedPackages("com.ellipsis.homelabmonitor.event");
+        binarySerializer = new ContainerEventSerializer();
+        binaryDeserializer = new ContainerEventDeserializer();
+
+        event = ContainerEvent.builder()
+                .host("pi-1")
+                .containerId("3f2a9c81d0e4")
+                .containerName("home-assistant")
+                .previousStatus(ContainerState.RUNNING)
+                .currentStatus(ContainerState.EXITED)
+                .occurredAt(LocalDateTime.now())
+                .eventType("CONTAINER_DOWN")
+                .build();
+
+        jsonHeaders = new RecordHeaders();
+        json = jsonSerializer.serialize(TOPIC, jsonHeaders, event);
+        binary = binarySerializer.serialize(TOPIC, event);
+
+        int headerBytes = 0;
+        for (Header header : jsonHeaders) {
+            headerBytes += header.key().length() + header.value().length;
+        }
+        System.out.printf("%nBytes per event: json %d (+%d in type headers), binary %d%n",
+                json.length, headerBytes, binary.length);
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public byte[] binarySerialize() {
+        return binarySerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public ContainerEvent jsonDeserialize() {
+        return jsonDeserializer.deserialize(TOPIC, jsonHeaders, json);
+    }
+
+    @Benchmark
+    public ContainerEvent binaryDeserialize() {
+        return binaryDeserializer.deserialize(TOPIC, binary);
+    }
+}
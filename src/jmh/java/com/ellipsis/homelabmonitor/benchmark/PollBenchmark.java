@@ -0,0 +1,100 @@
+package com.ellipsis.homelabmonitor.benchmark;
+
+import com.ellipsis.homelabmonitor.docker.CircuitBreaker;
+import com.ellipsis.homelabmonitor.docker.DockerEndpoint;
+import com.ellipsis.homelabmonitor.docker.DockerEndpoints;
+import com.ellipsis.homelabmonitor.kafka.ContainerEventProducer;
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import com.ellipsis.homelabmonitor.repository.ContainerRepository;
+import com.ellipsis.homelabmonitor.repository.ContainerStateIntervalRepository;
+import com.ellipsis.homelabmonitor.repository.LiveUptimeCheckpointStore;
+import com.ellipsis.homelabmonitor.service.ContainerService;
+import com.ellipsis.homelabmonitor.service.ContainerSnapshotCache;
+import com.ellipsis.homelabmonitor.service.LiveUptimeTracker;
+import com.ellipsis.homelabmonitor.service.RecentMetricsBuffer;
+import com.ellipsis.homelabmonitor.service.SnapshotWriteBuffer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.ListContainersCmd;
+import com.github.dockerjava.api.model.Container;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+// Time per poll on the hot path: Docker list response to ContainerInfo, status parsing,
+// change detection and snapshot publishing (poll), plus queueing for write-behind and the
+// in-memory counters (fetchAndSave). Docker answers from memory, and every other poll a tenth
+// of the containers flip between running and exited so events are raised as well.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PollBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int containers;
+
+    private ContainerService service;
+    private List<Container> steady;
+    private List<Container> flipped;
+    private boolean flip;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        steady = new ArrayList<>(containers);
+        flipped = new ArrayList<>(containers);
+        for (int i = 0; i < containers; i++) {
+            steady.add(container(mapper, i, "Up 2 hours"));
+            flipped.add(container(mapper, i, i % 10 == 0 ? "Exited (137) 5 seconds ago" : "Up 2 hours"));
+        }
+
+        // stubOnly so the mocks don't record millions of invocations
+        ListContainersCmd cmd = mock(ListContainersCmd.class, withSettings().stubOnly());
+        when(cmd.withShowAll(true)).thenReturn(cmd);
+        when(cmd.exec()).thenAnswer(invocation -> (flip = !flip) ? flipped : steady);
+        DockerClient client = mock(DockerClient.class, withSettings().stubOnly());
+        when(client.listContainersCmd()).thenReturn(cmd);
+
+        DockerEndpoint endpoint = new DockerEndpoint("pi-1", client, client,
+                Duration.ofSeconds(5), Duration.ofSeconds(30), new CircuitBreaker(3, Duration.ofMinutes(1)));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service = new ContainerService(new DockerEndpoints(List.of(endpoint)),
+                mock(ContainerRepository.class, withSettings().stubOnly()),
+                mock(ContainerStateIntervalRepository.class, withSettings().stubOnly()),
+                mock(SnapshotWriteBuffer.class, withSettings().stubOnly()),
+                new LiveUptimeTracker(mock(LiveUptimeCheckpointStore.class, withSettings().stubOnly())),
+                new RecentMetricsBuffer(registry, 3_600_000, 5_000, Math.max(256, containers)),
+                mock(ContainerEventProducer.class, withSettings().stubOnly()),
+                new ContainerSnapshotCache(60_000),
+                registry, 300_000, "snapshot");
+    }
+
+    // The shape docker-java deserializes from GET /containers/json
+    private static Container container(ObjectMapper mapper, int i, String status) {
+        return mapper.convertValue(Map.of(
+                "Id", String.format("%064x", i),
+                "Names", List.of("/container-" + i),
+                "Image", "ghcr.io/ellipsis1/service-" + (i % 20) + ":latest",
+                "Status", status), Container.class);
+    }
+
+    @Benchmark
+    public List<ContainerInfo> poll() {
+        return service.poll();
+    }
+
+    @Benchmark
+    public List<ContainerInfo> fetchAndSave() {
+        return service.fetchAndSave();
+    }
+}
@@ -0,0 +1,183 @@
+package com.ellipsis.homelabmonitor.benchmark;
+
+import com.ellipsis.homelabmonitor.batch.ReportJobsConfig;
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import com.ellipsis.homelabmonitor.model.ContainerState;
+import com.ellipsis.homelabmonitor.model.DailyReport;
+import com.ellipsis.homelabmonitor.repository.LiveUptimeCheckpointStore;
+import com.ellipsis.homelabmonitor.service.LiveUptimeTracker;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+// Time to turn one synthetic day of 30s polls into daily reports, two ways: the snapshot
+// report SQL the batch job runs per partition, and the live counters the nightly seal uses
+// (fed the same polls). monthlySql is the monthly job's aggregation over 30 daily reports.
+// Every container has a few short outages a day, so the incident pass has work to do.
+// Runs on in-memory H2 by default, point -Dbench.jdbc.url at a scratch Postgres database
+// for real plans (the bench tables are dropped and recreated).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportBenchmark {
+
+    private static final int POLLS_PER_DAY = 2880;
+
+    @Param({"10", "100"})
+    public int containers;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private LiveUptimeCheckpointStore checkpointStore;
+    private LocalDate day;
+    private List<List<ContainerInfo>> polls;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("bench.jdbc.url",
+                "jdbc:h2:mem:reports;MODE=PostgreSQL;DB_CLOSE_DELAY=-1"));
+        dataSource.setUsername(System.getProperty("bench.jdbc.username", "sa"));
+        dataSource.setPassword(System.getProperty("bench.jdbc.password", ""));
+        dataSource.setMaximumPoolSize(2);
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        checkpointStore = mock(LiveUptimeCheckpointStore.class);
+
+        // The live counters only report on today, so the synthetic day is today
+        day = LocalDate.now();
+        polls = new ArrayList<>(POLLS_PER_DAY);
+        for (int p = 0; p < POLLS_PER_DAY; p++) {
+            LocalDateTime checkedAt = day.atStartOfDay().plusSeconds(p * 30L);
+            List<ContainerInfo> poll = new ArrayList<>(containers);
+            for (int i = 0; i < containers; i++) {
+                // Down for 3 minutes every 4 hours, staggered per container
+                boolean up = (p + i * 37) % 480 >= 6;
+                String status = up ? "Up 2 hours" : "Exited (1) 1 minute ago";
+                poll.add(ContainerInfo.builder()
+                        .host("pi-" + (i % 3))
+                        .id(String.format("%012x", i))
+                        .name("container-" + i)
+                        .status(status)
+                        .state(ContainerState.parse(status))
+                        .image("ghcr.io/ellipsis1/service-" + (i % 20) + ":latest")
+                        .checkedAt(checkedAt)
+                        .build());
+            }
+            polls.add(poll);
+        }
+
+        createTables();
+        seed();
+    }
+
+    private void createTables() {
+        for (String table : List.of("container_info", "container_metrics", "daily_report")) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        }
+        jdbcTemplate.execute("CREATE TABLE container_info ("
+                + "db_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "host VARCHAR(255), id VARCHAR(255), name VARCHAR(255), "
+                + "status VARCHAR(255), image VARCHAR(255), checked_at TIMESTAMP(6), state SMALLINT)");
+        jdbcTemplate.execute("CREATE INDEX container_info_checked_at ON container_info (checked_at, name)");
+        jdbcTemplate.execute("CREATE TABLE container_metrics ("
+                + "host VARCHAR(255), container_id VARCHAR(64), container_name VARCHAR(255), "
+                + "sampled_at TIMESTAMP(6), cpu_percent REAL, memory_bytes BIGINT)");
+        jdbcTemplate.execute("CREATE INDEX container_metrics_name ON container_metrics (container_name, sampled_at)");
+        jdbcTemplate.execute("CREATE TABLE daily_report ("
+                + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, container_name VARCHAR(255), "
+                + "report_date DATE, uptime_percentage DOUBLE PRECISION, incident_count INT, "
+                + "average_cpu_percentage DOUBLE PRECISION, peak_cpu_percentage DOUBLE PRECISION, "
+                + "average_memory_bytes BIGINT, peak_memory_bytes BIGINT)");
+        jdbcTemplate.execute("CREATE INDEX daily_report_date ON daily_report (report_date, container_name)");
+    }
+
+    private void seed() {
+        for (List<ContainerInfo> poll : polls) {
+            jdbcTemplate.batchUpdate("INSERT INTO container_info (host, id, name, status, image, checked_at, state) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)", poll, poll.size(), (ps, c) -> {
+                ps.setString(1, c.getHost());
+                ps.setString(2, c.getId());
+                ps.setString(3, c.getName());
+                ps.setString(4, c.getStatus());
+                ps.setString(5, c.getImage());
+                ps.setObject(6, c.getCheckedAt());
+                ps.setShort(7, c.getState().code());
+            });
+        }
+
+        // Stats samples every 30s like the collector writes them, for running containers
+        for (List<ContainerInfo> poll : polls) {
+            List<ContainerInfo> running = poll.stream().filter(c -> c.getState().isRunning()).toList();
+            jdbcTemplate.batchUpdate("INSERT INTO container_metrics (host, container_id, container_name, "
+                    + "sampled_at, cpu_percent, memory_bytes) VALUES (?, ?, ?, ?, ?, ?)", running, running.size(), (ps, c) -> {
+                ps.setString(1, c.getHost());
+                ps.setString(2, c.getId());
+                ps.setString(3, c.getName());
+                ps.setObject(4, c.getCheckedAt());
+                ps.setFloat(5, (c.getCheckedAt().getMinute() % 50) / 10f);
+                ps.setLong(6, 64L * 1024 * 1024 + c.getCheckedAt().getSecond() * 4096L);
+            });
+        }
+
+        List<Object[]> reports = new ArrayList<>();
+        for (int d = 1; d <= 30; d++) {
+            for (int i = 0; i < containers; i++) {
+                reports.add(new Object[]{"container-" + i, day.minusDays(d), 95.0 + (i + d) % 50 / 10.0,
+                        (i + d) % 4, 1.5, 12.0, 128L * 1024 * 1024, 512L * 1024 * 1024});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO daily_report (container_name, report_date, uptime_percentage, "
+                + "incident_count, average_cpu_percentage, peak_cpu_percentage, average_memory_bytes, "
+                + "peak_memory_bytes) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", reports);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    // One partition covering every container, rows only counted so the JDBC read is all that's timed
+    @Benchmark
+    public int dailySnapshotSql(Blackhole bh) {
+        LocalDateTime start = day.atStartOfDay();
+        LocalDateTime end = day.plusDays(1).atStartOfDay();
+        return jdbcTemplate.query(ReportJobsConfig.SNAPSHOT_REPORT_SQL, (rs, i) -> {
+            bh.consume(rs.getInt("total"));
+            bh.consume(rs.getInt("running"));
+            bh.consume(rs.getInt("incidents"));
+            return rs.getString("name");
+        }, start, end, "", "~", start, end, "", "~").size();
+    }
+
+    @Benchmark
+    public List<DailyReport> dailyLiveCounters() {
+        LiveUptimeTracker tracker = new LiveUptimeTracker(checkpointStore);
+        for (List<ContainerInfo> poll : polls) {
+            tracker.record(poll);
+        }
+        return tracker.today();
+    }
+
+    @Benchmark
+    public int monthlySql(Blackhole bh) {
+        return jdbcTemplate.query(ReportJobsConfig.MONTHLY_REPORT_SQL, (rs, i) -> {
+            bh.consume(rs.getDouble("average_uptime"));
+            bh.consume(rs.getInt("total_incidents"));
+            bh.consume(rs.getInt("days_with_incidents"));
+            return rs.getString("container_name");
+        }, day.minusDays(30), day.minusDays(1), "", "~").size();
+    }
+}
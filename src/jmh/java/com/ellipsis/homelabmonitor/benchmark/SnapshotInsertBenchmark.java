@@ -0,0 +1,117 @@
+package com.ellipsis.homelabmonitor.benchmark;
+
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import com.ellipsis.homelabmonitor.repository.ContainerSnapshotWriter;
+import com.ellipsis.homelabmonitor.repository.EventOutboxStore;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Rows/sec for one poll's worth of snapshot rows: the old per-row IDENTITY inserts
+// (what saveAll ends up doing) against the batched writer.
+// Runs on in-memory H2 by default, point -Dbench.jdbc.url at a scratch Postgres database
+// for real round-trips (container_info is truncated between iterations).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotInsertBenchmark {
+
+    @Param({"50", "100", "250", "500"})
+    public int containers;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ContainerSnapshotWriter writer;
+    private List<ContainerInfo> rows;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class RowCounter {
+        public long rows;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("bench.jdbc.url",
+                "jdbc:h2:mem:bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1"));
+        dataSource.setUsername(System.getProperty("bench.jdbc.username", "sa"));
+        dataSource.setPassword(System.getProperty("bench.jdbc.password", ""));
+        dataSource.setMaximumPoolSize(3);
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        writer = new ContainerSnapshotWriter(jdbcTemplate, new EventOutboxStore(jdbcTemplate), 500);
+
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS container_info ("
+                + "db_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "host VARCHAR(255), id VARCHAR(255), name VARCHAR(255), "
+                + "status VARCHAR(255), image VARCHAR(255), checked_at TIMESTAMP(6), state SMALLINT)");
+
+        LocalDateTime now = LocalDateTime.now();
+        rows = new ArrayList<>(containers);
+        for (int i = 0; i < containers; i++) {
+            rows.add(ContainerInfo.builder()
+                    .host("pi-" + (i % 3))
+                    .id(String.format("%012x", i))
+                    .name("container-" + i)
+                    .status(i % 10 == 0 ? "Exited (0) 3 minutes ago" : "Up 2 hours")
+                    .image("ghcr.io/ellipsis1/service-" + (i % 20) + ":latest")
+                    .checkedAt(now)
+                    .build());
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        jdbcTemplate.execute("TRUNCATE TABLE container_info");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    // One INSERT and generated-key fetch per row, as Hibernate does for IDENTITY ids
+    @Benchmark
+    public void perRowIdentityInserts(RowCounter counter) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (ContainerInfo c : rows) {
+                jdbcTemplate.update(con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            "INSERT INTO container_info (host, id, name, status, image, checked_at) VALUES (?, ?, ?, ?, ?, ?)",
+                            Statement.RETURN_GENERATED_KEYS);
+                    ps.setString(1, c.getHost());
+                    ps.setString(2, c.getId());
+                    ps.setString(3, c.getName());
+                    ps.setString(4, c.getStatus());
+                    ps.setString(5, c.getImage());
+                    ps.setObject(6, c.getCheckedAt());
+                    return ps;
+                }, new GeneratedKeyHolder());
+            }
+        });
+        counter.rows += rows.size();
+    }
+
+    @Benchmark
+    public void batchedWriter(RowCounter counter) {
+        transactionTemplate.executeWithoutResult(status -> writer.write(rows));
+        counter.rows += rows.size();
+    }
+}
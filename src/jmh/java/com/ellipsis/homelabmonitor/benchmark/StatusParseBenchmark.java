@@ -0,0 +1,77 @@
+package com.ellipsis.homelabmonitor.benchmark;
+
+import com.ellipsis.homelabmonitor.model.ContainerState;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Time per poll to classify every container's status, the string normalization the poll path
+// used before (toLowerCase per call, then String compares) against ContainerState.parse.
+// Run with -prof gc to see the allocation per poll.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatusParseBenchmark {
+
+    private static final String[] SAMPLES = {
+            "Up 2 hours", "Up 3 days (healthy)", "Up 5 minutes (Paused)", "Exited (0) 3 minutes ago",
+            "Exited (137) 2 days ago", "Restarting (1) 5 seconds ago", "Created", "Up About a minute"
+    };
+
+    @Param({"50", "500"})
+    public int containers;
+
+    private String[] statuses;
+    private String[] previousLabels;
+    private ContainerState[] previousStates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        statuses = new String[containers];
+        previousLabels = new String[containers];
+        previousStates = new ContainerState[containers];
+        for (int i = 0; i < containers; i++) {
+            // Fresh strings, as each Docker response deserializes its own
+            statuses[i] = new String(SAMPLES[i % SAMPLES.length]);
+            previousStates[i] = ContainerState.parse(SAMPLES[(i + 1) % SAMPLES.length]);
+            previousLabels[i] = previousStates[i].label();
+        }
+    }
+
+    @Benchmark
+    public int lowerCaseNormalize(Blackhole bh) {
+        int changes = 0;
+        for (int i = 0; i < statuses.length; i++) {
+            String current = normalizeStatus(statuses[i]);
+            if (!current.equals(previousLabels[i])) changes++;
+            bh.consume(current.equals("running"));
+        }
+        return changes;
+    }
+
+    @Benchmark
+    public int containerStateParse(Blackhole bh) {
+        int changes = 0;
+        for (int i = 0; i < statuses.length; i++) {
+            ContainerState current = ContainerState.parse(statuses[i]);
+            if (current != previousStates[i]) changes++;
+            bh.consume(current.isRunning());
+        }
+        return changes;
+    }
+
+    // The normalization ContainerInfo carried before ContainerState
+    private static String normalizeStatus(String rawStatus) {
+        if (rawStatus == null) return "unknown";
+        String lower = rawStatus.toLowerCase();
+        if (lower.startsWith("up")) return "running";
+        if (lower.startsWith("restarting")) return "running";
+        if (lower.startsWith("exited")) return "exited";
+        if (lower.startsWith("paused")) return "paused";
+        return "unknown";
+    }
+}
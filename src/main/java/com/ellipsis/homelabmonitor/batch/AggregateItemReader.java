@@ -0,0 +1,45 @@
+package com.ellipsis.homelabmonitor.batch;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Runs a partition's aggregate query once when the step opens and hands the rows out from
+// memory. A partition yields one row per container in its name range, so holding them is
+// cheap, and unlike a cursor the connection goes back to the pool straight away instead of
+// being pinned for the whole step. A restarted partition simply runs its query again.
+public class AggregateItemReader<T> implements ItemStreamReader<T> {
+
+    private final Supplier<List<T>> query;
+    private List<T> all = List.of();
+    private Iterator<T> rows;
+
+    public AggregateItemReader(Supplier<List<T>> query) {
+        this.query = query;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        all = query.get();
+        rows = all.iterator();
+    }
+
+    // Everything the partition produces, read or not
+    public List<T> rows() {
+        return all;
+    }
+
+    @Override
+    public T read() {
+        return rows != null && rows.hasNext() ? rows.next() : null;
+    }
+
+    @Override
+    public void close() {
+        all = List.of();
+        rows = null;
+    }
+}
@@ -0,0 +1,96 @@
+package com.ellipsis.homelabmonitor.batch;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+// Keeps the daily partitions of container_info in step with the calendar: creates them a
+// few days ahead so inserts never land in the default partition, and drops whole days once
+// they fall out of the retention window (a catalog change instead of a DELETE + vacuum).
+@Slf4j
+@Component
+public class ContainerInfoPartitionManager {
+
+    private static final String PREFIX = "container_info_p";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int daysAhead;
+
+    public ContainerInfoPartitionManager(JdbcTemplate jdbcTemplate,
+                                         @Value("${monitor.partitions.days-ahead:3}") int daysAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.daysAhead = daysAhead;
+    }
+
+    // Runs while the context starts, before the scheduler fires the first poll (JdbcTemplate
+    // already waits for Flyway). An ApplicationReadyEvent listener runs after scheduled tasks
+    // have started, so a poll right after midnight could land in the default partition.
+    @PostConstruct
+    public void createCurrent() {
+        LocalDate today = LocalDate.now();
+        create(today);
+        create(today.plusDays(1));
+    }
+
+    // Runs every night shortly after midnight, and once after startup for the days further ahead
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 5 0 * * *")
+    public void createAhead() {
+        LocalDate today = LocalDate.now();
+        for (LocalDate day = today; !day.isAfter(today.plusDays(daysAhead)); day = day.plusDays(1)) {
+            create(day);
+        }
+    }
+
+    private void create(LocalDate day) {
+        try {
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS %s%s PARTITION OF container_info FOR VALUES FROM ('%s') TO ('%s')",
+                    PREFIX, day.format(SUFFIX), day, day.plusDays(1)));
+        } catch (Exception e) {
+            log.warn("Could not create container_info partition for {}: {}", day, e.getMessage());
+        }
+    }
+
+    // Drops every daily partition that ends on or before the cutoff
+    public int dropBefore(LocalDate cutoff) {
+        int dropped = 0;
+        for (String partition : partitions()) {
+            LocalDate day;
+            try {
+                day = LocalDate.parse(partition.substring(PREFIX.length()), SUFFIX);
+            } catch (DateTimeParseException e) {
+                continue;
+            }
+            if (!day.plusDays(1).isAfter(cutoff)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                dropped++;
+            }
+        }
+
+        // Anything that ended up in the default partition is small, a plain delete is fine
+        jdbcTemplate.update("DELETE FROM container_info_default WHERE checked_at < ?", cutoff.atStartOfDay());
+        return dropped;
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i "
+                        + "JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "JOIN pg_class p ON p.oid = i.inhparent "
+                        + "WHERE p.relname = 'container_info' AND c.relname LIKE 'container\\_info\\_p%' "
+                        + "ORDER BY c.relname",
+                String.class);
+    }
+}
@@ -0,0 +1,46 @@
+package com.ellipsis.homelabmonitor.batch;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Splits the sorted container names for a run into contiguous ranges, one per worker.
+// Each partition reads "name BETWEEN fromName AND toName", so ranges never overlap and
+// a restarted job only re-runs the partitions that didn't complete. pruneFrom / pruneTo
+// stretch the ranges over the gaps between them (absent = open ended), so together the
+// partitions own every name and stale reports can be removed by whichever one owns them.
+public class ContainerNamePartitioner implements Partitioner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String namesSql;
+    private final Object[] args;
+
+    public ContainerNamePartitioner(JdbcTemplate jdbcTemplate, String namesSql, Object... args) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namesSql = namesSql;
+        this.args = args;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        List<String> names = jdbcTemplate.queryForList(namesSql, String.class, args);
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        if (names.isEmpty()) return partitions;
+
+        int size = (names.size() + gridSize - 1) / gridSize;
+        for (int from = 0, i = 0; from < names.size(); from += size, i++) {
+            ExecutionContext context = new ExecutionContext();
+            context.putString("fromName", names.get(from));
+            context.putString("toName", names.get(Math.min(from + size, names.size()) - 1));
+            context.putInt("containers", Math.min(size, names.size() - from));
+            if (from > 0) context.putString("pruneFrom", names.get(from));
+            if (from + size < names.size()) context.putString("pruneTo", names.get(from + size));
+            partitions.put("partition" + i, context);
+        }
+        return partitions;
+    }
+}
@@ -1,91 +1,103 @@
 package com.ellipsis.homelabmonitor.batch;
 
-import com.ellipsis.homelabmonitor.model.ContainerInfo;
-import com.ellipsis.homelabmonitor.model.DailyReport;
-import com.ellipsis.homelabmonitor.repository.ContainerRepository;
-import com.ellipsis.homelabmonitor.repository.DailyReportRepository;
+import com.ellipsis.homelabmonitor.repository.ContainerMetricsStore;
+import com.ellipsis.homelabmonitor.repository.ContainerStateIntervalRepository;
+import com.ellipsis.homelabmonitor.service.LiveUptimeTracker;
+import com.ellipsis.homelabmonitor.service.ReportQueryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Component
 public class DailyReportJob {
 
-    private final ContainerRepository containerRepository;
-    private final DailyReportRepository dailyReportRepository;
-
-    public DailyReportJob(ContainerRepository containerRepository,
-                          DailyReportRepository dailyReportRepository) {
-        this.containerRepository = containerRepository;
-        this.dailyReportRepository = dailyReportRepository;
+    private final ReportJobLauncher reportJobLauncher;
+    private final LiveUptimeTracker uptimeTracker;
+    private final ReportQueryService reportQueryService;
+    private final ContainerInfoPartitionManager partitionManager;
+    private final ContainerStateIntervalRepository intervalRepository;
+    private final ContainerMetricsStore metricsStore;
+    private final Timer sealTimer;
+    private final boolean changeLogMode;
+    private final int retentionDays;
+
+    public DailyReportJob(ReportJobLauncher reportJobLauncher,
+                          LiveUptimeTracker uptimeTracker,
+                          ReportQueryService reportQueryService,
+                          ContainerInfoPartitionManager partitionManager,
+                          ContainerStateIntervalRepository intervalRepository,
+                          ContainerMetricsStore metricsStore,
+                          MeterRegistry meterRegistry,
+                          @Value("${monitor.storage.mode:snapshot}") String storageMode,
+                          @Value("${monitor.retention.days:7}") int retentionDays) {
+        this.reportJobLauncher = reportJobLauncher;
+        this.uptimeTracker = uptimeTracker;
+        this.reportQueryService = reportQueryService;
+        this.partitionManager = partitionManager;
+        this.intervalRepository = intervalRepository;
+        this.metricsStore = metricsStore;
+        this.sealTimer = Timer.builder("monitor.reports.job")
+                .description("Report job run time")
+                .tags("job", ReportJobsConfig.DAILY_JOB, "status", BatchStatus.COMPLETED.name(), "source", "seal")
+                .register(meterRegistry);
+        this.changeLogMode = "changelog".equalsIgnoreCase(storageMode);
+        this.retentionDays = retentionDays;
     }
 
     // Runs everyday at 2am
     @Scheduled(cron = "0 0 2 * * *")
     public void generateDailyReport() {
-        System.out.println("Starting daily report job");
-
         LocalDate yesterday = LocalDate.now().minusDays(1);
-        LocalDateTime start = yesterday.atStartOfDay();
-        LocalDateTime end = yesterday.atTime(23, 59, 59);
-
-        List<ContainerInfo> snapshots = containerRepository.findByCheckedAtBetween(start,end);
 
-        if (snapshots.isEmpty()) {
-            System.out.println("No snapshots found for " + yesterday);
+        // The counters already hold yesterday's numbers, raw rows are only scanned if they don't
+        long start = System.nanoTime();
+        if (uptimeTracker.seal(yesterday)) {
+            sealTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.info("Sealed live counters as daily report for {}", yesterday);
+            reportQueryService.evictDaily(yesterday);
+            cleanUp();
             return;
         }
+        generate();
+    }
 
-        // Group snapshots by container name
-        Map<String, List<ContainerInfo>> byContainer = snapshots.stream()
-                .collect(Collectors.groupingBy(ContainerInfo::getName));
-
-        for (Map.Entry<String, List<ContainerInfo>> entry : byContainer.entrySet()) {
-            String containerName = entry.getKey();
-            List<ContainerInfo> containerSnapshots = entry.getValue();
-
-            int total = containerSnapshots.size();
-            int running = (int) containerSnapshots.stream()
-                    .filter(s -> s.getStatus().toLowerCase().startsWith("up"))
-                    .count();
-
-            double uptimePercent = total > 0 ? (running * 100.0) / total : 0;
-
-            // Count incidents - transitions from running to not running
-            int incidents = 0;
-            for (int i = 1; i < containerSnapshots.size(); i++) {
-                boolean wasRunning = containerSnapshots.get(i - 1).getStatus().toLowerCase().startsWith("up");
-                boolean isRunning = containerSnapshots.get(i).getStatus().toLowerCase().startsWith("up");
-                if (wasRunning && !isRunning) incidents++;
-            }
+    private void generate() {
+        log.info("Starting daily report job");
 
-            DailyReport report = DailyReport.builder()
-                    .containerName(containerName)
-                    .reportDate(yesterday)
-                    .totalSnapshots(total)
-                    .runningSnapshots(running)
-                    .uptimePercentage(Math.round(uptimePercent * 10.0)/10.0)
-                    .incidentCount(incidents)
-                    .generatedAt(LocalDateTime.now())
-                    .build();
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        BatchStatus status = reportJobLauncher.runDaily(yesterday, false);
 
-            dailyReportRepository.save(report);
-            System.out.println("Report saved for " + containerName + " - " + uptimePercent + "% uptime");
+        // Raw data is only pruned once its report is safely written
+        if (status == BatchStatus.COMPLETED) {
+            cleanUp();
         }
+    }
 
-        // Clean up raw snapshots older than 7 days
-        LocalDateTime cutoff = LocalDateTime.now().minusDays(7);
-        containerRepository.deleteByCheckedAtBefore(cutoff);
-        System.out.println("Cleaned up snapshots older than 7 days");
+    // Clean up raw data older than the retention window
+    private void cleanUp() {
+        if (changeLogMode) {
+            intervalRepository.deleteByValidToBefore(LocalDateTime.now().minusDays(retentionDays));
+        } else {
+            // Whole days only, so a snapshot is kept for up to a day longer than the window
+            int dropped = partitionManager.dropBefore(LocalDate.now().minusDays(retentionDays));
+            log.info("Dropped {} snapshot partitions", dropped);
+        }
+        metricsStore.deleteBefore(LocalDateTime.now().minusDays(retentionDays));
+        log.info("Cleaned up snapshots older than {} days", retentionDays);
     }
 
-    // Testing
-    public void runNow() {
-        generateDailyReport();
+    // Regenerates yesterday in the background and returns the job id; retention is left to the 2am run
+    public long runNow() throws JobExecutionException {
+        return reportJobLauncher.submitDaily(LocalDate.now().minusDays(1), true);
     }
 }
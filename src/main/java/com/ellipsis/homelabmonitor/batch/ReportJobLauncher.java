@@ -0,0 +1,280 @@
+package com.ellipsis.homelabmonitor.batch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Runs the report jobs with the period as the identifying parameter. A period whose last run
+// completed is skipped unless a rerun is asked for, and one that failed (or was cut off by a
+// crash) is restarted, so only its unfinished partitions run again. Scheduled runs and
+// backfills block until the job ends; submit* hands the job to its own executor and returns
+// the execution id straight away. Either way an execution already running for the period is
+// reused instead of starting a second one over the same reports.
+@Slf4j
+@Component
+public class ReportJobLauncher {
+
+    private static final long WAIT_POLL_MS = 500;
+
+    private final JobRepository jobRepository;
+    private final JobExplorer jobExplorer;
+    private final Job dailyReportJob;
+    private final Job monthlyReportJob;
+    private final ExecutorService backfillExecutor;
+    private final ExecutorService submitExecutor;
+    private final TaskExecutorJobLauncher asyncJobLauncher;
+    private final int backfillMaxDays;
+
+    public ReportJobLauncher(JobRepository jobRepository,
+                             JobExplorer jobExplorer,
+                             @Qualifier("dailyReportBatchJob") Job dailyReportJob,
+                             @Qualifier("monthlyReportBatchJob") Job monthlyReportJob,
+                             @Value("${monitor.reports.backfill-threads:2}") int backfillThreads,
+                             @Value("${monitor.reports.submit-threads:2}") int submitThreads,
+                             @Value("${monitor.reports.backfill.max-days:31}") int backfillMaxDays) {
+        this.jobRepository = jobRepository;
+        this.jobExplorer = jobExplorer;
+        this.dailyReportJob = dailyReportJob;
+        this.monthlyReportJob = monthlyReportJob;
+        this.backfillMaxDays = backfillMaxDays;
+        this.backfillExecutor = Executors.newFixedThreadPool(backfillThreads, r -> {
+            Thread thread = new Thread(r, "report-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.submitExecutor = Executors.newFixedThreadPool(submitThreads, r -> {
+            Thread thread = new Thread(r, "report-submit");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Creates the execution on the caller's thread, then runs it on submitExecutor
+        this.asyncJobLauncher = new TaskExecutorJobLauncher();
+        this.asyncJobLauncher.setJobRepository(jobRepository);
+        this.asyncJobLauncher.setTaskExecutor(new TaskExecutorAdapter(submitExecutor));
+    }
+
+    public BatchStatus runDaily(LocalDate date, boolean rerun) {
+        return run(dailyReportJob, new JobParametersBuilder().addLocalDate("date", date).toJobParameters(), rerun);
+    }
+
+    public BatchStatus runMonthly(YearMonth month, boolean rerun) {
+        return run(monthlyReportJob, new JobParametersBuilder().addLocalDate("month", month.atDay(1)).toJobParameters(), rerun);
+    }
+
+    public long submitDaily(LocalDate date, boolean rerun) throws JobExecutionException {
+        return submit(dailyReportJob, new JobParametersBuilder().addLocalDate("date", date).toJobParameters(), rerun);
+    }
+
+    public long submitMonthly(YearMonth month, boolean rerun) throws JobExecutionException {
+        return submit(monthlyReportJob, new JobParametersBuilder().addLocalDate("month", month.atDay(1)).toJobParameters(), rerun);
+    }
+
+    // Each day is its own job instance, so calling this again after a crash picks up where it stopped
+    public CompletableFuture<Map<LocalDate, BatchStatus>> backfill(LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("end must not be before start");
+        }
+        if (!end.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("end must be before today");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= backfillMaxDays) {
+            throw new IllegalArgumentException("at most " + backfillMaxDays + " days per backfill");
+        }
+
+        List<CompletableFuture<Map.Entry<LocalDate, BatchStatus>>> days = new ArrayList<>();
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            LocalDate date = day;
+            days.add(CompletableFuture.supplyAsync(() -> Map.entry(date, runDaily(date, false)), backfillExecutor));
+        }
+        return CompletableFuture.allOf(days.toArray(CompletableFuture[]::new))
+                .thenApply(v -> {
+                    Map<LocalDate, BatchStatus> results = new TreeMap<>();
+                    days.forEach(d -> results.put(d.join().getKey(), d.join().getValue()));
+                    return results;
+                });
+    }
+
+    // Same running check and lock as submit, then waits for whichever execution runs the period
+    private BatchStatus run(Job job, JobParameters parameters, boolean rerun) {
+        long executionId;
+        try {
+            executionId = submit(job, parameters, rerun);
+        } catch (Exception e) {
+            log.warn("{} {} failed to start: {}", job.getName(), parameters, e.getMessage());
+            return BatchStatus.FAILED;
+        }
+
+        try {
+            JobExecution execution = jobExplorer.getJobExecution(executionId);
+            while (execution.isRunning()) {
+                Thread.sleep(WAIT_POLL_MS);
+                execution = jobExplorer.getJobExecution(executionId);
+            }
+            log.info("{} {} finished: {}", job.getName(), execution.getJobParameters(), execution.getStatus());
+            return execution.getStatus();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("{} {} interrupted while waiting for execution {}", job.getName(), parameters, executionId);
+            return BatchStatus.UNKNOWN;
+        }
+    }
+
+    // Synchronized so two requests for the same period can't both miss the running check
+    private synchronized long submit(Job job, JobParameters parameters, boolean rerun) throws JobExecutionException {
+        JobExecution running = findRunning(job.getName(), parameters);
+        if (running != null) return running.getId();
+
+        JobExecution last = jobRepository.getLastJobExecution(job.getName(), parameters);
+        if (last != null && last.getStatus() == BatchStatus.COMPLETED) {
+            if (!rerun) return last.getId();
+            parameters = rerunParameters(parameters);
+        }
+
+        try {
+            JobExecution execution = asyncJobLauncher.run(job, parameters);
+            log.info("{} {} submitted as execution {}", job.getName(), parameters, execution.getId());
+            return execution.getId();
+        } catch (JobExecutionAlreadyRunningException e) {
+            // Started by the scheduler or a backfill in the meantime
+            running = findRunning(job.getName(), parameters);
+            if (running == null) throw e;
+            return running.getId();
+        }
+    }
+
+    // Running executions of the job for the same period, whichever instance they belong to
+    private JobExecution findRunning(String jobName, JobParameters parameters) {
+        for (JobExecution execution : jobExplorer.findRunningJobExecutions(jobName)) {
+            if (period(execution.getJobParameters()).equals(period(parameters))) {
+                return execution;
+            }
+        }
+        return null;
+    }
+
+    // A fresh instance for the same period, its rows are overwritten by the upserts
+    private static JobParameters rerunParameters(JobParameters parameters) {
+        return new JobParametersBuilder(parameters)
+                .addLong("rerun", System.currentTimeMillis())
+                .toJobParameters();
+    }
+
+    private static String period(JobParameters parameters) {
+        Object period = parameters.getParameters().containsKey("date")
+                ? parameters.getLocalDate("date")
+                : YearMonth.from(parameters.getLocalDate("month"));
+        return String.valueOf(period);
+    }
+
+    public Optional<ReportJobStatus> status(long jobId) {
+        JobExecution execution = jobExplorer.getJobExecution(jobId);
+        if (execution == null || !List.of(ReportJobsConfig.DAILY_JOB, ReportJobsConfig.MONTHLY_JOB)
+                .contains(execution.getJobInstance().getJobName())) {
+            return Optional.empty();
+        }
+
+        List<ReportJobStatus.Partition> partitions = new ArrayList<>();
+        List<String> failures = new ArrayList<>();
+        int done = 0;
+        long written = 0;
+        for (StepExecution step : execution.getStepExecutions()) {
+            step.getFailureExceptions().forEach(e -> failures.add(step.getStepName() + ": " + e.getMessage()));
+            // Worker steps are named "<step>:partitionN", the manager step only hands them out
+            if (!step.getStepName().contains(":")) continue;
+
+            ExecutionContext context = step.getExecutionContext();
+            partitions.add(new ReportJobStatus.Partition(step.getStepName(),
+                    context.getString("fromName", null),
+                    context.getString("toName", null),
+                    context.getInt("containers", 0),
+                    step.getStatus().name(),
+                    step.getWriteCount(),
+                    durationMs(step.getStartTime(), step.getEndTime())));
+            if (step.getStatus() == BatchStatus.COMPLETED) done++;
+            written += step.getWriteCount();
+        }
+        execution.getFailureExceptions().forEach(e -> failures.add(e.getMessage()));
+        partitions.sort(Comparator.comparing(p -> p.fromName() == null ? "" : p.fromName()));
+
+        return Optional.of(new ReportJobStatus(execution.getId(),
+                execution.getJobInstance().getJobName(),
+                period(execution.getJobParameters()),
+                execution.getStatus().name(),
+                execution.getExitStatus().getExitCode(),
+                execution.getStartTime(),
+                execution.getEndTime(),
+                durationMs(execution.getStartTime(), execution.getEndTime()),
+                done,
+                partitions.size(),
+                written,
+                partitions,
+                failures));
+    }
+
+    // Still running steps report the time so far
+    private static Long durationMs(LocalDateTime start, LocalDateTime end) {
+        if (start == null) return null;
+        return Duration.between(start, end != null ? end : LocalDateTime.now()).toMillis();
+    }
+
+    // Executions left STARTED by a crash would block restarts, so mark them failed on boot.
+    // Assumes a single monitor instance shares the batch tables.
+    @EventListener(ApplicationReadyEvent.class)
+    public void failAbandonedExecutions() {
+        for (String jobName : List.of(ReportJobsConfig.DAILY_JOB, ReportJobsConfig.MONTHLY_JOB)) {
+            for (JobExecution execution : jobExplorer.findRunningJobExecutions(jobName)) {
+                LocalDateTime now = LocalDateTime.now();
+                for (StepExecution step : execution.getStepExecutions()) {
+                    if (step.getStatus().isRunning()) {
+                        step.setStatus(BatchStatus.FAILED);
+                        step.setEndTime(now);
+                        jobRepository.update(step);
+                    }
+                }
+                execution.setStatus(BatchStatus.FAILED);
+                execution.setEndTime(now);
+                jobRepository.update(execution);
+                log.warn("Marked interrupted {} execution {} as failed", jobName, execution.getId());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        backfillExecutor.shutdownNow();
+        submitExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,29 @@
+package com.ellipsis.homelabmonitor.batch;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Snapshot of a report job execution for the status endpoint. Containers are aggregated
+// a name range at a time, so timings are reported per partition with the range it covered.
+public record ReportJobStatus(long jobId,
+                              String job,
+                              String period,
+                              String status,
+                              String exitStatus,
+                              LocalDateTime startTime,
+                              LocalDateTime endTime,
+                              Long durationMs,
+                              int partitionsDone,
+                              int partitionsTotal,
+                              long reportsWritten,
+                              List<Partition> partitions,
+                              List<String> failures) {
+
+    public record Partition(String name,
+                            String fromName,
+                            String toName,
+                            int containers,
+                            String status,
+                            long reportsWritten,
+                            Long durationMs) { }
+}
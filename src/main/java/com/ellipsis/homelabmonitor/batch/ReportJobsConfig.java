@@ -0,0 +1,421 @@
+package com.ellipsis.homelabmonitor.batch;
+
+import com.ellipsis.homelabmonitor.model.DailyReport;
+import com.ellipsis.homelabmonitor.model.MonthlyReport;
+import com.ellipsis.homelabmonitor.repository.ReportWriter;
+import com.ellipsis.homelabmonitor.service.ReportQueryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+// Daily and monthly reports as chunk-oriented Spring Batch jobs. Each job fans the aggregation
+// out over container-name partitions on a thread pool. Each partition reads its aggregates from
+// PostgreSQL in one query and writes them back as batched upserts on the report's natural key,
+// one chunk per commit, so re-running a period overwrites its rows rather than duplicating them.
+@Slf4j
+@Configuration
+public class ReportJobsConfig {
+
+    public static final String DAILY_JOB = "dailyReport";
+    public static final String MONTHLY_JOB = "monthlyReport";
+
+    private static final String SNAPSHOT_NAMES_SQL =
+            "SELECT DISTINCT name FROM container_info WHERE checked_at >= ? AND checked_at < ? ORDER BY name";
+
+    // Average and peak CPU / memory per container over [start, end) within a name range
+    private static final String RESOURCE_USAGE_SQL = """
+            SELECT container_name,
+                   CAST(avg(cpu_percent) AS float8) AS average_cpu,
+                   CAST(max(cpu_percent) AS float8) AS peak_cpu,
+                   CAST(avg(memory_bytes) AS bigint) AS average_memory,
+                   max(memory_bytes) AS peak_memory
+            FROM container_metrics
+            WHERE sampled_at >= ? AND sampled_at < ? AND container_name BETWEEN ? AND ?
+            GROUP BY container_name
+            """;
+
+    public static final String SNAPSHOT_REPORT_SQL = """
+            WITH u AS (
+                SELECT name,
+                       count(*) AS total,
+                       count(*) FILTER (WHERE running) AS running,
+                       count(*) FILTER (WHERE was_running AND NOT running) AS incidents
+                FROM (
+                    SELECT name,
+                           state = 1 AS running,
+                           lag(state = 1) OVER (PARTITION BY host, name ORDER BY checked_at, db_id) AS was_running
+                    FROM container_info
+                    WHERE checked_at >= ? AND checked_at < ? AND name BETWEEN ? AND ?
+                ) s
+                GROUP BY name
+            ), m AS (%s)
+            SELECT u.*, m.average_cpu, m.peak_cpu, m.average_memory, m.peak_memory
+            FROM u LEFT JOIN m ON m.container_name = u.name
+            ORDER BY u.name
+            """.formatted(RESOURCE_USAGE_SQL);
+
+    private static final String INTERVAL_NAMES_SQL =
+            "SELECT DISTINCT container_name FROM container_state_interval "
+                    + "WHERE valid_from < ? AND valid_to >= ? ORDER BY container_name";
+
+    // Intervals are clipped to the day; a drop counts on the day the non-running interval starts
+    private static final String INTERVAL_REPORT_SQL = """
+            WITH u AS (
+                SELECT container_name AS name,
+                       sum(observed_ms) AS observed_ms,
+                       sum(observed_ms) FILTER (WHERE status = 'running') AS running_ms,
+                       count(*) FILTER (WHERE prev_status = 'running' AND status <> 'running' AND valid_from >= ?) AS incidents
+                FROM (
+                    SELECT container_name, status, valid_from,
+                           lag(status) OVER (PARTITION BY host, container_name ORDER BY valid_from) AS prev_status,
+                           greatest(extract(epoch FROM (least(valid_to, ?) - greatest(valid_from, ?))) * 1000, 0) AS observed_ms
+                    FROM container_state_interval
+                    WHERE valid_from < ? AND valid_to >= ? AND container_name BETWEEN ? AND ?
+                ) i
+                GROUP BY container_name
+            ), m AS (%s)
+            SELECT u.*, m.average_cpu, m.peak_cpu, m.average_memory, m.peak_memory
+            FROM u LEFT JOIN m ON m.container_name = u.name
+            ORDER BY u.name
+            """.formatted(RESOURCE_USAGE_SQL);
+
+    private static final String MONTHLY_NAMES_SQL =
+            "SELECT DISTINCT container_name FROM daily_report WHERE report_date BETWEEN ? AND ? ORDER BY container_name";
+
+    public static final String MONTHLY_REPORT_SQL = """
+            SELECT container_name,
+                   avg(uptime_percentage) AS average_uptime,
+                   sum(incident_count) AS total_incidents,
+                   count(*) FILTER (WHERE incident_count > 0) AS days_with_incidents,
+                   count(*) AS total_days,
+                   avg(average_cpu_percentage) AS average_cpu,
+                   max(peak_cpu_percentage) AS peak_cpu,
+                   CAST(avg(average_memory_bytes) AS bigint) AS average_memory,
+                   max(peak_memory_bytes) AS peak_memory
+            FROM daily_report
+            WHERE report_date BETWEEN ? AND ? AND container_name BETWEEN ? AND ?
+            GROUP BY container_name
+            ORDER BY container_name
+            """;
+
+    private final JobRepository jobRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final ReportWriter reportWriter;
+    private final ReportQueryService reportQueryService;
+    private final MeterRegistry meterRegistry;
+    private final boolean changeLogMode;
+    private final long pollIntervalMs;
+    private final int threads;
+    private final int chunkSize;
+
+    public ReportJobsConfig(JobRepository jobRepository,
+                            PlatformTransactionManager transactionManager,
+                            JdbcTemplate jdbcTemplate,
+                            ReportWriter reportWriter,
+                            ReportQueryService reportQueryService,
+                            MeterRegistry meterRegistry,
+                            @Value("${monitor.storage.mode:snapshot}") String storageMode,
+                            @Value("${monitor.poll-interval-ms:60000}") long pollIntervalMs,
+                            @Value("${monitor.reports.threads:4}") int threads,
+                            @Value("${monitor.reports.chunk-size:100}") int chunkSize,
+                            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                            @Value("${monitor.reports.reserved-connections:3}") int reservedConnections) {
+        this.jobRepository = jobRepository;
+        this.transactionManager = transactionManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.reportWriter = reportWriter;
+        this.reportQueryService = reportQueryService;
+        this.meterRegistry = meterRegistry;
+        this.changeLogMode = "changelog".equalsIgnoreCase(storageMode);
+        this.pollIntervalMs = pollIntervalMs;
+        this.threads = partitionThreads(threads, poolSize, reservedConnections);
+        this.chunkSize = chunkSize;
+    }
+
+    // Each partition holds a connection while it writes a chunk, so more partition threads
+    // than the pool can spare just queue on Hikari and time out. The reserve covers the
+    // job repository, write-behind flushes and history streams running alongside.
+    static int partitionThreads(int threads, int poolSize, int reservedConnections) {
+        int available = Math.max(1, poolSize - reservedConnections);
+        if (threads > available) {
+            log.warn("monitor.reports.threads={} exceeds the {} connections the pool of {} can spare, using {}",
+                    threads, available, poolSize, available);
+            return available;
+        }
+        return threads;
+    }
+
+    @Bean
+    public TaskExecutor reportTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("report-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Runs after every outcome, a failed run may still have committed some partitions
+    private JobExecutionListener evictCachedReports() {
+        return new JobExecutionListener() {
+            @Override
+            public void afterJob(JobExecution jobExecution) {
+                JobParameters parameters = jobExecution.getJobParameters();
+                if (parameters.getLocalDate("date") != null) {
+                    reportQueryService.evictDaily(parameters.getLocalDate("date"));
+                }
+                if (parameters.getLocalDate("month") != null) {
+                    reportQueryService.evictMonthly(YearMonth.from(parameters.getLocalDate("month")));
+                }
+            }
+        };
+    }
+
+    // Run time by job and outcome, and report rows written across all partitions
+    private JobExecutionListener recordJobMetrics() {
+        return new JobExecutionListener() {
+            @Override
+            public void afterJob(JobExecution jobExecution) {
+                String job = jobExecution.getJobInstance().getJobName();
+                if (jobExecution.getStartTime() != null && jobExecution.getEndTime() != null) {
+                    Timer.builder("monitor.reports.job")
+                            .description("Report job run time")
+                            .tags("job", job, "status", jobExecution.getStatus().name(), "source", "batch")
+                            .register(meterRegistry)
+                            .record(Duration.between(jobExecution.getStartTime(), jobExecution.getEndTime()));
+                }
+
+                // The manager step carries the write counts aggregated from its partitions
+                long written = 0;
+                for (StepExecution step : jobExecution.getStepExecutions()) {
+                    if (!step.getStepName().contains(":")) written += step.getWriteCount();
+                }
+                meterRegistry.counter("monitor.reports.rows", "job", job).increment(written);
+            }
+        };
+    }
+
+    // ---- Daily ----
+
+    @Bean
+    public Job dailyReportBatchJob(Step dailyReportStep) {
+        return new JobBuilder(DAILY_JOB, jobRepository)
+                .start(dailyReportStep)
+                .listener(evictCachedReports())
+                .listener(recordJobMetrics())
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public ContainerNamePartitioner dailyReportPartitioner(@Value("#{jobParameters['date']}") LocalDate date) {
+        LocalDateTime start = date.atStartOfDay();
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
+        return changeLogMode
+                ? new ContainerNamePartitioner(jdbcTemplate, INTERVAL_NAMES_SQL, end, start)
+                : new ContainerNamePartitioner(jdbcTemplate, SNAPSHOT_NAMES_SQL, start, end);
+    }
+
+    @Bean
+    public Step dailyReportStep(ContainerNamePartitioner dailyReportPartitioner, Step dailyReportWorkerStep) {
+        return new StepBuilder("dailyReport", jobRepository)
+                .partitioner("dailyReportWorker", dailyReportPartitioner)
+                .step(dailyReportWorkerStep)
+                .gridSize(threads)
+                .taskExecutor(reportTaskExecutor())
+                .build();
+    }
+
+    @Bean
+    public Step dailyReportWorkerStep(AggregateItemReader<DailyReport> dailyReportReader,
+                                      ItemWriter<DailyReport> dailyReportWriter) {
+        return new StepBuilder("dailyReportWorker", jobRepository)
+                .<DailyReport, DailyReport>chunk(chunkSize, transactionManager)
+                .reader(dailyReportReader)
+                .writer(dailyReportWriter)
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public AggregateItemReader<DailyReport> dailyReportReader(
+            @Value("#{jobParameters['date']}") LocalDate date,
+            @Value("#{stepExecutionContext['fromName']}") String fromName,
+            @Value("#{stepExecutionContext['toName']}") String toName) {
+        LocalDateTime start = date.atStartOfDay();
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
+        LocalDateTime generatedAt = LocalDateTime.now();
+
+        if (changeLogMode) {
+            // Durations are turned into poll-sized slots so reports stay comparable with snapshot mode
+            return new AggregateItemReader<>(() -> jdbcTemplate.query(INTERVAL_REPORT_SQL, (rs, i) -> {
+                        long observedMs = rs.getLong("observed_ms");
+                        long runningMs = rs.getLong("running_ms");
+                        return withResourceUsage(dailyReport(rs.getString("name"), date,
+                                (int) (observedMs / pollIntervalMs), (int) (runningMs / pollIntervalMs),
+                                observedMs > 0 ? (runningMs * 100.0) / observedMs : 0,
+                                rs.getInt("incidents"), generatedAt), rs);
+                    }, start, end, start, end, start, fromName, toName, start, end, fromName, toName));
+        }
+
+        return new AggregateItemReader<>(() -> jdbcTemplate.query(SNAPSHOT_REPORT_SQL, (rs, i) -> {
+                    int total = rs.getInt("total");
+                    int running = rs.getInt("running");
+                    return withResourceUsage(dailyReport(rs.getString("name"), date, total, running,
+                            total > 0 ? (running * 100.0) / total : 0, rs.getInt("incidents"), generatedAt), rs);
+                }, start, end, fromName, toName, start, end, fromName, toName));
+    }
+
+    // The partition's first chunk also deletes the day's reports in its slice of names that
+    // this run doesn't produce (containers gone since the day was last generated), in the
+    // same transaction as the upsert
+    @Bean
+    @StepScope
+    public ItemWriter<DailyReport> dailyReportWriter(
+            AggregateItemReader<DailyReport> dailyReportReader,
+            @Value("#{jobParameters['date']}") LocalDate date,
+            @Value("#{stepExecutionContext['pruneFrom']}") String pruneFrom,
+            @Value("#{stepExecutionContext['pruneTo']}") String pruneTo) {
+        boolean[] pruned = {false};
+        return chunk -> {
+            if (!pruned[0]) {
+                reportWriter.deleteDailyExcept(date, pruneFrom, pruneTo,
+                        dailyReportReader.rows().stream().map(DailyReport::getContainerName).toList());
+            }
+            reportWriter.upsertDaily(chunk.getItems());
+            pruned[0] = true;
+        };
+    }
+
+    private static DailyReport dailyReport(String name, LocalDate day, int total, int running, double uptimePercent,
+                                           int incidents, LocalDateTime generatedAt) {
+        return DailyReport.builder()
+                .containerName(name)
+                .reportDate(day)
+                .totalSnapshots(total)
+                .runningSnapshots(running)
+                .uptimePercentage(Math.round(uptimePercent * 10.0)/10.0)
+                .incidentCount(incidents)
+                .generatedAt(generatedAt)
+                .build();
+    }
+
+    private static DailyReport withResourceUsage(DailyReport report, ResultSet rs) throws SQLException {
+        report.setAverageCpuPercentage(round(rs.getObject("average_cpu", Double.class)));
+        report.setPeakCpuPercentage(round(rs.getObject("peak_cpu", Double.class)));
+        report.setAverageMemoryBytes(rs.getObject("average_memory", Long.class));
+        report.setPeakMemoryBytes(rs.getObject("peak_memory", Long.class));
+        return report;
+    }
+
+    private static Double round(Double percent) {
+        return percent == null ? null : Math.round(percent * 10.0) / 10.0;
+    }
+
+    // ---- Monthly ----
+
+    @Bean
+    public Job monthlyReportBatchJob(Step monthlyReportStep) {
+        return new JobBuilder(MONTHLY_JOB, jobRepository)
+                .start(monthlyReportStep)
+                .listener(evictCachedReports())
+                .listener(recordJobMetrics())
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public ContainerNamePartitioner monthlyReportPartitioner(@Value("#{jobParameters['month']}") LocalDate month) {
+        return new ContainerNamePartitioner(jdbcTemplate, MONTHLY_NAMES_SQL,
+                month, month.withDayOfMonth(month.lengthOfMonth()));
+    }
+
+    @Bean
+    public Step monthlyReportStep(ContainerNamePartitioner monthlyReportPartitioner, Step monthlyReportWorkerStep) {
+        return new StepBuilder("monthlyReport", jobRepository)
+                .partitioner("monthlyReportWorker", monthlyReportPartitioner)
+                .step(monthlyReportWorkerStep)
+                .gridSize(threads)
+                .taskExecutor(reportTaskExecutor())
+                .build();
+    }
+
+    @Bean
+    public Step monthlyReportWorkerStep(AggregateItemReader<MonthlyReport> monthlyReportReader,
+                                        ItemWriter<MonthlyReport> monthlyReportWriter) {
+        return new StepBuilder("monthlyReportWorker", jobRepository)
+                .<MonthlyReport, MonthlyReport>chunk(chunkSize, transactionManager)
+                .reader(monthlyReportReader)
+                .writer(monthlyReportWriter)
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public AggregateItemReader<MonthlyReport> monthlyReportReader(
+            @Value("#{jobParameters['month']}") LocalDate month,
+            @Value("#{stepExecutionContext['fromName']}") String fromName,
+            @Value("#{stepExecutionContext['toName']}") String toName) {
+        LocalDateTime generatedAt = LocalDateTime.now();
+        return new AggregateItemReader<>(() -> jdbcTemplate.query(MONTHLY_REPORT_SQL, (rs, i) -> MonthlyReport.builder()
+                        .containerName(rs.getString("container_name"))
+                        .reportMonth(month.getMonthValue())
+                        .reportYear(month.getYear())
+                        .averageUptimePercentage(Math.round(rs.getDouble("average_uptime") * 10.0) / 10.0)
+                        .totalIncidents(rs.getInt("total_incidents"))
+                        .daysWithIncidents(rs.getInt("days_with_incidents"))
+                        .totalDaysReported(rs.getInt("total_days"))
+                        .averageCpuPercentage(round(rs.getObject("average_cpu", Double.class)))
+                        .peakCpuPercentage(round(rs.getObject("peak_cpu", Double.class)))
+                        .averageMemoryBytes(rs.getObject("average_memory", Long.class))
+                        .peakMemoryBytes(rs.getObject("peak_memory", Long.class))
+                        .generatedAt(generatedAt)
+                        .build(),
+                month, month.withDayOfMonth(month.lengthOfMonth()), fromName, toName));
+    }
+
+    // Same as the daily writer
+    @Bean
+    @StepScope
+    public ItemWriter<MonthlyReport> monthlyReportWriter(
+            AggregateItemReader<MonthlyReport> monthlyReportReader,
+            @Value("#{jobParameters['month']}") LocalDate month,
+            @Value("#{stepExecutionContext['pruneFrom']}") String pruneFrom,
+            @Value("#{stepExecutionContext['pruneTo']}") String pruneTo) {
+        boolean[] pruned = {false};
+        return chunk -> {
+            if (!pruned[0]) {
+                reportWriter.deleteMonthlyExcept(YearMonth.from(month), pruneFrom, pruneTo,
+                        monthlyReportReader.rows().stream().map(MonthlyReport::getContainerName).toList());
+            }
+            reportWriter.upsertMonthly(chunk.getItems());
+            pruned[0] = true;
+        };
+    }
+}
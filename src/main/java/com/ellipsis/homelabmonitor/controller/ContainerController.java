@@ -1,13 +1,39 @@
 package com.ellipsis.homelabmonitor.controller;
 
+import com.ellipsis.homelabmonitor.docker.ContainerStatsCollector;
+import com.ellipsis.homelabmonitor.model.ContainerHistoryRow;
 import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import com.ellipsis.homelabmonitor.model.ContainerMetrics;
+import com.ellipsis.homelabmonitor.model.ContainerStateInterval;
+import com.ellipsis.homelabmonitor.repository.ContainerHistoryQueries;
 import com.ellipsis.homelabmonitor.repository.ContainerRepository;
+import com.ellipsis.homelabmonitor.service.ContainerSeriesService;
 import com.ellipsis.homelabmonitor.service.ContainerService;
+import com.ellipsis.homelabmonitor.service.ContainerSnapshot;
+import com.ellipsis.homelabmonitor.service.RecentMetricsBuffer;
+import com.ellipsis.homelabmonitor.service.SeriesPoint;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/containers")
@@ -15,40 +41,248 @@ public class ContainerController {
 
     private final ContainerRepository containerRepository;
     private final ContainerService containerService;
+    private final ContainerHistoryQueries historyQueries;
+    private final ContainerSeriesService seriesService;
+    private final ContainerStatsCollector statsCollector;
+    private final RecentMetricsBuffer recentMetrics;
+    private final ObjectMapper objectMapper;
+    private final int maxPageSize;
+    // Each open stream holds a pooled connection for as long as the client keeps reading
+    private final Semaphore streams;
 
     public ContainerController(ContainerRepository containerRepository,
-                               ContainerService containerService) {
+                               ContainerService containerService,
+                               ContainerHistoryQueries historyQueries,
+                               ContainerSeriesService seriesService,
+                               ContainerStatsCollector statsCollector,
+                               RecentMetricsBuffer recentMetrics,
+                               ObjectMapper objectMapper,
+                               @Value("${monitor.history.max-page-size:5000}") int maxPageSize,
+                               @Value("${monitor.history.max-streams:1}") int maxStreams) {
         this.containerRepository = containerRepository;
         this.containerService = containerService;
+        this.historyQueries = historyQueries;
+        this.seriesService = seriesService;
+        this.statsCollector = statsCollector;
+        this.recentMetrics = recentMetrics;
+        this.objectMapper = objectMapper;
+        this.maxPageSize = maxPageSize;
+        this.streams = new Semaphore(maxStreams);
     }
 
     @GetMapping
-    public List<ContainerInfo> getContainers() {
-        return containerService.getCurrentContainers();
+    public ResponseEntity<List<ContainerInfo>> getContainers(
+            @RequestParam(required = false) String host,
+            WebRequest request) {
+        ContainerSnapshot snapshot = containerService.getCurrentSnapshot();
+        if (snapshot == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        // Answers 304 when If-None-Match matches the current snapshot
+        if (request.checkNotModified(snapshot.etag())) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .header("X-Snapshot-Version", String.valueOf(snapshot.version()))
+                .header("X-Snapshot-Age-Ms", String.valueOf(snapshot.age().toMillis()))
+                .body(host == null ? snapshot.containers() : snapshot.containers().stream()
+                        .filter(c -> host.equals(c.getHost()))
+                        .collect(Collectors.toList()));
+    }
+
+    // Latest CPU, memory, network and block I/O sample per running container, from memory
+    @GetMapping("/metrics")
+    public List<ContainerMetrics> getMetrics(@RequestParam(required = false) String host) {
+        return statsCollector.latest(host);
     }
 
     @GetMapping("/history")
-    public List<ContainerInfo> getHistory(
+    public List<ContainerHistoryRow> getHistory(
+            @RequestParam(required = false) String host,
             @RequestParam(defaultValue = "24") int hours) {
-        return containerService.getHistory(hours);
+        return containerService.getHistory(host, hours);
+    }
+
+    // Keyset pagination, pass nextCursor back as cursor to get the following page
+    @GetMapping("/history/page")
+    public ResponseEntity<HistoryPage> getHistoryPage(
+            @RequestParam(required = false) String host,
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "500") int limit) {
+        ContainerHistoryQueries.Cursor after;
+        try {
+            after = cursor == null ? null : ContainerHistoryQueries.Cursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ContainerHistoryQueries.Page page = historyQueries.page(LocalDateTime.now().minusHours(hours),
+                host, name, after, Math.max(1, Math.min(limit, maxPageSize)));
+        return ResponseEntity.ok(new HistoryPage(page.items(),
+                page.next() == null ? null : page.next().encode()));
+    }
+
+    // One JSON object per line, written as rows come off the database cursor
+    @GetMapping(value = "/history/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamHistory(
+            @RequestParam(required = false) String host,
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "24") int hours) {
+        if (streams.availablePermits() == 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+
+        LocalDateTime since = LocalDateTime.now().minusHours(hours);
+        StreamingResponseBody body = out -> {
+            // Taken here rather than above so a body that never runs can't leak the permit
+            try {
+                if (!streams.tryAcquire(5, TimeUnit.SECONDS)) {
+                    throw new IOException("Too many history streams open");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for a history stream", e);
+            }
+
+            try (OutputStream buffered = new BufferedOutputStream(out)) {
+                historyQueries.stream(since, host, name, row -> {
+                    try {
+                        buffered.write(objectMapper.writeValueAsBytes(row));
+                        buffered.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } finally {
+                streams.release();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
     }
 
     @GetMapping("/history/{name}")
-    public List<ContainerInfo> getHistoryByName(
+    public List<ContainerHistoryRow> getHistoryByName(
             @PathVariable String name,
+            @RequestParam(required = false) String host,
+            @RequestParam(defaultValue = "24") int hours) {
+        return containerService.getHistoryByName(host, name, hours);
+    }
+
+    // Per-bucket uptime ratio and state changes for charts, e.g. ?hours=168&bucket=1h&maxPoints=200
+    @GetMapping("/{name}/series")
+    public ResponseEntity<List<SeriesPoint>> getSeries(
+            @PathVariable String name,
+            @RequestParam(required = false) String host,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(defaultValue = "5m") String bucket,
+            @RequestParam(required = false) Integer maxPoints) {
+        Duration bucketSize;
+        try {
+            bucketSize = ContainerSeriesService.parseBucket(bucket);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        LocalDateTime to = end != null ? end : LocalDateTime.now();
+        LocalDateTime from = start != null ? start : to.minusHours(hours);
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(seriesService.getSeries(host, name, from, to, bucketSize, maxPoints));
+    }
+
+    // Last hour or so of state, CPU and memory at monitor.recent.resolution-ms, from memory.
+    // Written straight from the rings to the response, nothing is allocated per sample.
+    @GetMapping(value = "/{name}/recent", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getRecent(
+            @PathVariable String name,
+            @RequestParam(required = false) String host,
+            @RequestParam(defaultValue = "60") int minutes) {
+        List<RecentMetricsBuffer.Series> series = recentMetrics.find(host, name);
+        if (series.isEmpty()) return ResponseEntity.notFound().build();
+
+        long since = System.currentTimeMillis() - minutes * 60_000L;
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                char[] number = new char[24];
+                json.writeStartArray();
+                for (RecentMetricsBuffer.Series s : series) {
+                    json.writeStartObject();
+                    json.writeStringField("host", s.host());
+                    json.writeStringField("name", s.name());
+                    json.writeNumberField("resolutionMs", recentMetrics.resolutionMs());
+                    json.writeArrayFieldStart("samples");
+                    s.ring().read(since, (time, state, cpuPercent, memoryBytes) -> {
+                        try {
+                            json.writeStartObject();
+                            json.writeNumberField("time", time);
+                            json.writeStringField("state", state.label());
+                            json.writeFieldName("cpuPercent");
+                            if (Float.isNaN(cpuPercent)) json.writeNull();
+                            else json.writeRawValue(number, 0, formatHundredths(cpuPercent, number));
+                            json.writeFieldName("memoryBytes");
+                            if (memoryBytes < 0) json.writeNull();
+                            else json.writeNumber(memoryBytes);
+                            json.writeEndObject();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    json.writeEndArray();
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Fixed two decimals into buf, since writeNumber(float) formats through a new String
+    static int formatHundredths(float value, char[] buf) {
+        long scaled = Math.round(Math.abs((double) value) * 100);
+        int pos = buf.length;
+        for (int i = 0; i < 2; i++) {
+            buf[--pos] = (char) ('0' + scaled % 10);
+            scaled /= 10;
+        }
+        buf[--pos] = '.';
+        do {
+            buf[--pos] = (char) ('0' + scaled % 10);
+            scaled /= 10;
+        } while (scaled > 0);
+        if (value < 0) buf[--pos] = '-';
+        int length = buf.length - pos;
+        System.arraycopy(buf, pos, buf, 0, length);
+        return length;
+    }
+
+    @GetMapping("/intervals")
+    public List<ContainerStateInterval> getIntervals(
+            @RequestParam(required = false) String host,
+            @RequestParam(required = false) String name,
             @RequestParam(defaultValue = "24") int hours) {
-        return containerService.getHistoryByName(name, hours);
+        return containerService.getIntervals(host, name, hours);
     }
 
     @PostMapping("/restart/{name}")
-    public ResponseEntity<String> restartContainer(@PathVariable String name) {
-        containerService.restartContainer(name);
+    public ResponseEntity<String> restartContainer(@PathVariable String name,
+                                                   @RequestParam(required = false) String host) {
+        containerService.restartContainer(host, name);
         return ResponseEntity.ok("Restart triggered for: " + name);
     }
 
     @PostMapping("/stop/{name}")
-    public ResponseEntity<String> stopContainer(@PathVariable String name) {
-        containerService.stopContainer(name);
+    public ResponseEntity<String> stopContainer(@PathVariable String name,
+                                                @RequestParam(required = false) String host) {
+        containerService.stopContainer(host, name);
         return ResponseEntity.ok("Stop triggered for: " + name);
     }
 
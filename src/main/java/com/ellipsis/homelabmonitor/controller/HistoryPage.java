@@ -0,0 +1,9 @@
+package com.ellipsis.homelabmonitor.controller;
+
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+
+import java.util.List;
+
+// nextCursor is null on the last page
+public record HistoryPage(List<ContainerInfo> items, String nextCursor) {
+}
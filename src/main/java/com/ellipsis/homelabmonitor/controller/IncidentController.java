@@ -0,0 +1,38 @@
+package com.ellipsis.homelabmonitor.controller;
+
+import com.ellipsis.homelabmonitor.model.ContainerIncident;
+import com.ellipsis.homelabmonitor.model.IncidentStats;
+import com.ellipsis.homelabmonitor.repository.IncidentStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/incidents")
+public class IncidentController {
+
+    private final IncidentStore incidentStore;
+    private final int flappingPerHour;
+
+    public IncidentController(IncidentStore incidentStore,
+                              @Value("${monitor.incidents.flapping-per-hour:3}") int flappingPerHour) {
+        this.incidentStore = incidentStore;
+        this.flappingPerHour = flappingPerHour;
+    }
+
+    @GetMapping
+    public List<ContainerIncident> getIncidents(
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "24") int hours) {
+        return incidentStore.findSince(LocalDateTime.now().minusHours(hours), name);
+    }
+
+    // MTTR, downtime and flapping per container for incidents started in the window
+    @GetMapping("/stats")
+    public List<IncidentStats> getStats(@RequestParam(defaultValue = "24") int hours) {
+        LocalDateTime now = LocalDateTime.now();
+        return incidentStore.stats(now.minusHours(hours), now, flappingPerHour);
+    }
+}
@@ -2,17 +2,24 @@ package com.ellipsis.homelabmonitor.controller;
 
 import com.ellipsis.homelabmonitor.batch.DailyReportJob;
 import com.ellipsis.homelabmonitor.batch.MonthlyReportJob;
+import com.ellipsis.homelabmonitor.batch.ReportJobLauncher;
+import com.ellipsis.homelabmonitor.batch.ReportJobStatus;
 import com.ellipsis.homelabmonitor.model.DailyReport;
 import com.ellipsis.homelabmonitor.model.MonthlyReport;
 import com.ellipsis.homelabmonitor.repository.DailyReportRepository;
-import com.ellipsis.homelabmonitor.repository.MonthlyReportRepository;
+import com.ellipsis.homelabmonitor.service.LiveUptimeTracker;
+import com.ellipsis.homelabmonitor.service.ReportQueryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecutionException;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.time.LocalDate;
 import java.util.List;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/reports")
 @CrossOrigin(origins = "*")
@@ -20,17 +27,23 @@ public class ReportController {
 
     private final DailyReportRepository dailyReportRepository;
     private final DailyReportJob dailyReportJob;
-    private final MonthlyReportRepository monthlyReportRepository;
     private final MonthlyReportJob monthlyReportJob;
+    private final ReportJobLauncher reportJobLauncher;
+    private final LiveUptimeTracker uptimeTracker;
+    private final ReportQueryService reportQueryService;
 
     public ReportController(DailyReportRepository dailyReportRepository,
                             DailyReportJob dailyReportJob,
-                            MonthlyReportRepository monthlyReportRepository,
-                            MonthlyReportJob monthlyReportJob) {
+                            MonthlyReportJob monthlyReportJob,
+                            ReportJobLauncher reportJobLauncher,
+                            LiveUptimeTracker uptimeTracker,
+                            ReportQueryService reportQueryService) {
         this.dailyReportRepository = dailyReportRepository;
         this.dailyReportJob = dailyReportJob;
-        this.monthlyReportRepository = monthlyReportRepository;
         this.monthlyReportJob = monthlyReportJob;
+        this.reportJobLauncher = reportJobLauncher;
+        this.uptimeTracker = uptimeTracker;
+        this.reportQueryService = reportQueryService;
     }
 
     // Get all reports for a date range
@@ -38,14 +51,20 @@ public class ReportController {
     public List<DailyReport> getReports(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
-        return dailyReportRepository.findByReportDateBetween(start, end);
+        return reportQueryService.getDailyReports(start, end);
+    }
+
+    // Partial-day uptime from the live counters
+    @GetMapping("/today")
+    public List<DailyReport> getTodayReports() {
+        return uptimeTracker.today();
     }
 
     // Get reports for a specific date
     @GetMapping("/date/{date}")
     public List<DailyReport> getReportsByDate(
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        return dailyReportRepository.findByReportDate(date);
+        return reportQueryService.getDailyReports(date);
     }
 
     // Get reports for a specific container
@@ -57,11 +76,31 @@ public class ReportController {
         return dailyReportRepository.findByContainerNameAndReportDateBetween(name, start, end);
     }
 
-    // Manual Trigger for testing
+    // Regenerates yesterday's reports in the background; poll the Location for progress.
+    // A request while that day is already generating gets the running job back.
     @PostMapping("/generate")
-    public ResponseEntity<String> generateReport() {
-        dailyReportJob.runNow();
-        return ResponseEntity.ok().body("Report Generation Triggered");
+    public ResponseEntity<ReportJobStatus> generateReport() throws JobExecutionException {
+        return accepted(dailyReportJob.runNow());
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ReportJobStatus> getJobStatus(@PathVariable long id) {
+        return ResponseEntity.of(reportJobLauncher.status(id));
+    }
+
+    // Regenerate daily reports for a range of past days, at most monitor.reports.backfill.max-days;
+    // days already reported are skipped
+    @PostMapping("/backfill")
+    public ResponseEntity<String> backfill(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        try {
+            reportJobLauncher.backfill(start, end)
+                    .thenAccept(results -> log.info("Backfill finished: {}", results));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return ResponseEntity.accepted().body("Backfill started for " + start + " to " + end);
     }
 
     // Get reports for a specific month and year
@@ -69,18 +108,23 @@ public class ReportController {
     public List<MonthlyReport> getMonthlyReports(
             @PathVariable int year,
             @PathVariable int month) {
-        return monthlyReportRepository.findByReportMonthAndReportYear(month, year);
+        return reportQueryService.getMonthlyReports(year, month);
     }
 
     // Get yearly report
     @GetMapping("/monthly/{year}")
     public List<MonthlyReport> getMonthlyReportsByYear(@PathVariable int year) {
-        return monthlyReportRepository.findByReportYearOrderByReportMonthAsc(year);
+        return reportQueryService.getMonthlyReports(year);
     }
 
     @PostMapping("/generate/monthly")
-    public ResponseEntity<String> generateMonthlyReport() {
-        monthlyReportJob.runNow();
-        return ResponseEntity.ok().body("Monthly Report Generation Triggered");
+    public ResponseEntity<ReportJobStatus> generateMonthlyReport() throws JobExecutionException {
+        return accepted(monthlyReportJob.runNow());
+    }
+
+    private ResponseEntity<ReportJobStatus> accepted(long jobId) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/reports/jobs/" + jobId))
+                .body(reportJobLauncher.status(jobId).orElse(null));
     }
 }
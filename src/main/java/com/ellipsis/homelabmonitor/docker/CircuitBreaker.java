@@ -0,0 +1,47 @@
+package com.ellipsis.homelabmonitor.docker;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// Opens after a run of consecutive failures and lets a single trial call through once the open period is over
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openedAt;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && Duration.between(openedAt, Instant.now()).compareTo(openDuration) >= 0) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        return state == State.CLOSED;
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = Instant.now();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,175 @@
+package com.ellipsis.homelabmonitor.docker;
+
+import com.ellipsis.homelabmonitor.service.ContainerService;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Event;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Follows the Docker events stream of one host and pushes container state changes
+// into ContainerService as they happen. The scheduled poll stays on as reconciliation.
+@Slf4j
+public class ContainerEventStream {
+
+    static final String[] HANDLED_ACTIONS = {
+            "create", "start", "restart", "unpause", "pause", "die", "destroy"
+    };
+
+    private final String host;
+    private final DockerEventSource eventSource;
+    private final ContainerService containerService;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+
+    private final ScheduledExecutorService reconnectScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "docker-events-reconnect");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger failedAttempts = new AtomicInteger();
+
+    private volatile boolean running;
+    private volatile Closeable subscription;
+    private volatile Long lastEventTime;
+
+    public ContainerEventStream(String host,
+                                DockerEventSource eventSource,
+                                ContainerService containerService,
+                                long initialBackoffMs,
+                                long maxBackoffMs) {
+        this.host = host;
+        this.eventSource = eventSource;
+        this.containerService = containerService;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        connect();
+    }
+
+    public void stop() {
+        running = false;
+        containerService.setEventStreamLive(host, false);
+        closeQuietly(subscription);
+        reconnectScheduler.shutdownNow();
+    }
+
+    private void connect() {
+        if (!running) return;
+        try {
+            StreamCallback callback = new StreamCallback();
+            subscription = callback;
+            eventSource.subscribe(lastEventTime, callback);
+        } catch (Exception e) {
+            disconnected(e);
+        }
+    }
+
+    private void disconnected(Throwable cause) {
+        containerService.setEventStreamLive(host, false);
+        if (!running) return;
+
+        int attempt = failedAttempts.getAndIncrement();
+        long delay = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt, 16));
+        log.warn("Docker event stream for {} disconnected ({}), reconnecting in {}ms",
+                host, cause != null ? cause.getMessage() : "closed", delay);
+        reconnectScheduler.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    void handle(Event event) {
+        if (event.getTime() != null) lastEventTime = event.getTime();
+
+        String id = event.getActor() != null && event.getActor().getId() != null
+                ? event.getActor().getId() : event.getId();
+        String action = event.getAction() != null ? event.getAction() : event.getStatus();
+        if (id == null || action == null) return;
+
+        if (action.equals("destroy")) {
+            containerService.removeContainer(host, id);
+            return;
+        }
+
+        Map<String, String> attributes = event.getActor() != null && event.getActor().getAttributes() != null
+                ? event.getActor().getAttributes() : Map.of();
+
+        String status = statusFor(action, attributes);
+        if (status == null) return;
+
+        containerService.applyDockerEvent(host, id, attributes.get("name"), attributes.get("image"), status);
+    }
+
+    // Mirrors the status strings listContainersCmd reports so ContainerState.parse treats both alike
+    private static String statusFor(String action, Map<String, String> attributes) {
+        switch (action) {
+            case "start":
+            case "restart":
+            case "unpause":
+                return "Up";
+            case "pause":
+                return "Up (Paused)";
+            case "die":
+                return "Exited (" + attributes.getOrDefault("exitCode", "0") + ")";
+            case "create":
+                return "Created";
+            default:
+                return null;
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) return;
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+        }
+    }
+
+    private class StreamCallback extends ResultCallback.Adapter<Event> {
+
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        @Override
+        public void onStart(Closeable stream) {
+            super.onStart(stream);
+            containerService.setEventStreamLive(host, true);
+            // Catch up on anything missed while disconnected
+            try {
+                containerService.reconcile(host);
+            } catch (Exception e) {
+                log.warn("Reconciliation of {} after connect failed: {}", host, e.getMessage());
+            }
+        }
+
+        @Override
+        public void onNext(Event event) {
+            failedAttempts.set(0);
+            try {
+                handle(event);
+            } catch (Exception e) {
+                log.warn("Failed to handle Docker event: {}", e.getMessage());
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            super.onError(throwable);
+            if (ended.compareAndSet(false, true)) disconnected(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            super.onComplete();
+            if (ended.compareAndSet(false, true)) disconnected(null);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.ellipsis.homelabmonitor.docker;
+
+import com.ellipsis.homelabmonitor.service.ContainerService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One event stream per configured Docker host
+@Component
+public class ContainerEventStreams {
+
+    private final DockerEndpoints endpoints;
+    private final ContainerService containerService;
+    private final boolean enabled;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final List<ContainerEventStream> streams = new ArrayList<>();
+
+    public ContainerEventStreams(DockerEndpoints endpoints,
+                                 ContainerService containerService,
+                                 @Value("${monitor.events.enabled:true}") boolean enabled,
+                                 @Value("${monitor.events.initial-backoff-ms:1000}") long initialBackoffMs,
+                                 @Value("${monitor.events.max-backoff-ms:60000}") long maxBackoffMs) {
+        this.endpoints = endpoints;
+        this.containerService = containerService;
+        this.enabled = enabled;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || !streams.isEmpty()) return;
+
+        for (DockerEndpoint endpoint : endpoints.all()) {
+            ContainerEventStream stream = new ContainerEventStream(endpoint.getName(),
+                    new DockerClientEventSource(endpoint.getStreamingClient()),
+                    containerService, initialBackoffMs, maxBackoffMs);
+            streams.add(stream);
+            stream.start();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        streams.forEach(ContainerEventStream::stop);
+        streams.clear();
+    }
+}
@@ -0,0 +1,275 @@
+package com.ellipsis.homelabmonitor.docker;
+
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import com.ellipsis.homelabmonitor.model.ContainerMetrics;
+import com.ellipsis.homelabmonitor.repository.ContainerMetricsStore;
+import com.ellipsis.homelabmonitor.service.ContainerSnapshot;
+import com.ellipsis.homelabmonitor.service.ContainerSnapshotCache;
+import com.ellipsis.homelabmonitor.service.RecentMetricsBuffer;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.BlkioStatEntry;
+import com.github.dockerjava.api.model.CpuStatsConfig;
+import com.github.dockerjava.api.model.MemoryStatsConfig;
+import com.github.dockerjava.api.model.StatisticNetworksConfig;
+import com.github.dockerjava.api.model.Statistics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Keeps one streaming stats subscription open per running container, all hosts at once, and
+// holds the latest sample of each in memory. Every sample interval it opens streams for new
+// containers, closes those that stopped, and writes the samples taken since the last round.
+@Slf4j
+@Component
+public class ContainerStatsCollector {
+
+    private final DockerEndpoints endpoints;
+    private final DockerStatsSource statsSource;
+    private final ContainerSnapshotCache snapshotCache;
+    private final ContainerMetricsStore metricsStore;
+    private final RecentMetricsBuffer recentMetrics;
+    private final boolean enabled;
+    private final long sampleIntervalMs;
+    private final Counter writeFailures;
+
+    // Keyed by host/container id
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, ContainerMetrics> latest = new ConcurrentHashMap<>();
+    private final Map<String, ContainerMetrics> unwritten = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "container-stats");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ContainerStatsCollector(DockerEndpoints endpoints,
+                                   DockerStatsSource statsSource,
+                                   ContainerSnapshotCache snapshotCache,
+                                   ContainerMetricsStore metricsStore,
+                                   RecentMetricsBuffer recentMetrics,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${monitor.stats.enabled:true}") boolean enabled,
+                                   @Value("${monitor.stats.sample-interval-ms:30000}") long sampleIntervalMs) {
+        this.endpoints = endpoints;
+        this.statsSource = statsSource;
+        this.snapshotCache = snapshotCache;
+        this.metricsStore = metricsStore;
+        this.recentMetrics = recentMetrics;
+        this.enabled = enabled;
+        this.sampleIntervalMs = sampleIntervalMs;
+        this.writeFailures = meterRegistry.counter("monitor.stats.write.failures");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+        sampler.scheduleWithFixedDelay(this::tickQuietly, 0, sampleIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        sampler.shutdownNow();
+        subscriptions.values().forEach(Subscription::close);
+        subscriptions.clear();
+    }
+
+    // Latest sample per running container, from memory
+    public List<ContainerMetrics> latest(String host) {
+        return latest.values().stream()
+                .filter(m -> host == null || host.equals(m.host()))
+                .sorted(Comparator.comparing(ContainerMetrics::host).thenComparing(ContainerMetrics::containerName))
+                .toList();
+    }
+
+    private void tickQuietly() {
+        try {
+            sync();
+            flush();
+        } catch (Exception e) {
+            log.warn("Container stats round failed: {}", e.getMessage());
+        }
+    }
+
+    // Matches the open streams to the running containers in the current snapshot
+    void sync() {
+        ContainerSnapshot snapshot = snapshotCache.current();
+        if (snapshot == null) return;
+
+        Map<String, ContainerInfo> running = new HashMap<>();
+        for (ContainerInfo c : snapshot.containers()) {
+            if (c.getState().isRunning()) running.put(key(c.getHost(), c.getId()), c);
+        }
+
+        subscriptions.entrySet().removeIf(entry -> {
+            if (running.containsKey(entry.getKey())) return false;
+            entry.getValue().close();
+            latest.remove(entry.getKey());
+            unwritten.remove(entry.getKey());
+            return true;
+        });
+
+        running.forEach((key, c) -> {
+            if (subscriptions.containsKey(key)) return;
+            endpoints.get(c.getHost())
+                    .filter(endpoint -> endpoint.getBreakerState() != CircuitBreaker.State.OPEN)
+                    .ifPresent(endpoint -> subscribe(endpoint, key, c));
+        });
+    }
+
+    private void subscribe(DockerEndpoint endpoint, String key, ContainerInfo container) {
+        Subscription subscription = new Subscription(key, endpoint.getName(), container.getId(), container.getName());
+        subscriptions.put(key, subscription);
+        try {
+            statsSource.subscribe(endpoint, container.getId(), subscription);
+        } catch (Exception e) {
+            subscriptions.remove(key, subscription);
+            log.warn("Could not open stats stream for {}: {}", key, e.getMessage());
+        }
+    }
+
+    // Writes what arrived since the last round. Samples are best effort, a failed write is dropped.
+    void flush() {
+        List<ContainerMetrics> batch = new ArrayList<>(unwritten.size());
+        for (String key : unwritten.keySet()) {
+            ContainerMetrics sample = unwritten.remove(key);
+            if (sample != null) batch.add(sample);
+        }
+        try {
+            metricsStore.append(batch);
+        } catch (Exception e) {
+            writeFailures.increment();
+            log.warn("Failed to write {} container stats samples: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private static String key(String host, String containerId) {
+        return host + "/" + containerId;
+    }
+
+    // Null when the frame has no previous reading to take the CPU delta against (the first one)
+    static ContainerMetrics toMetrics(String host, String containerId, String containerName,
+                                      LocalDateTime sampledAt, Statistics stats) {
+        CpuStatsConfig cpu = stats.getCpuStats();
+        CpuStatsConfig preCpu = stats.getPreCpuStats();
+        if (cpu == null || cpu.getCpuUsage() == null || preCpu == null || preCpu.getCpuUsage() == null
+                || preCpu.getSystemCpuUsage() == null || preCpu.getSystemCpuUsage() == 0) {
+            return null;
+        }
+
+        // Same formula as `docker stats`: container share of all CPU time, scaled to the cores
+        long cpuDelta = value(cpu.getCpuUsage().getTotalUsage()) - value(preCpu.getCpuUsage().getTotalUsage());
+        long systemDelta = value(cpu.getSystemCpuUsage()) - value(preCpu.getSystemCpuUsage());
+        long cpus = cpu.getOnlineCpus() != null ? cpu.getOnlineCpus()
+                : cpu.getCpuUsage().getPercpuUsage() != null ? cpu.getCpuUsage().getPercpuUsage().size() : 1;
+        double cpuPercent = cpuDelta > 0 && systemDelta > 0 ? (double) cpuDelta / systemDelta * cpus * 100.0 : 0;
+
+        long memory = 0;
+        long memoryLimit = 0;
+        MemoryStatsConfig mem = stats.getMemoryStats();
+        if (mem != null) {
+            memory = value(mem.getUsage());
+            memoryLimit = value(mem.getLimit());
+            if (mem.getStats() != null) {
+                // cgroup v2 reports inactive_file, v1 total_inactive_file
+                Long inactive = mem.getStats().getInactiveFile() != null
+                        ? mem.getStats().getInactiveFile() : mem.getStats().getTotalInactiveFile();
+                memory = Math.max(0, memory - value(inactive));
+            }
+        }
+
+        long rx = 0;
+        long tx = 0;
+        if (stats.getNetworks() != null) {
+            for (StatisticNetworksConfig network : stats.getNetworks().values()) {
+                rx += value(network.getRxBytes());
+                tx += value(network.getTxBytes());
+            }
+        }
+
+        long read = 0;
+        long write = 0;
+        if (stats.getBlkioStats() != null && stats.getBlkioStats().getIoServiceBytesRecursive() != null) {
+            for (BlkioStatEntry entry : stats.getBlkioStats().getIoServiceBytesRecursive()) {
+                if ("read".equalsIgnoreCase(entry.getOp())) read += value(entry.getValue());
+                else if ("write".equalsIgnoreCase(entry.getOp())) write += value(entry.getValue());
+            }
+        }
+
+        return new ContainerMetrics(host, containerId, containerName, sampledAt,
+                cpuPercent, memory, memoryLimit, rx, tx, read, write);
+    }
+
+    private static long value(Long boxed) {
+        return boxed == null ? 0 : boxed;
+    }
+
+    private class Subscription extends ResultCallback.Adapter<Statistics> {
+
+        private final String key;
+        private final String host;
+        private final String containerId;
+        private final String containerName;
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        Subscription(String key, String host, String containerId, String containerName) {
+            this.key = key;
+            this.host = host;
+            this.containerId = containerId;
+            this.containerName = containerName;
+        }
+
+        @Override
+        public void onNext(Statistics stats) {
+            if (ended.get()) return;
+            ContainerMetrics sample = toMetrics(host, containerId, containerName, LocalDateTime.now(), stats);
+            if (sample == null) return;
+            latest.put(key, sample);
+            unwritten.put(key, sample);
+            recentMetrics.record(sample);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            super.onError(throwable);
+            ended();
+        }
+
+        @Override
+        public void onComplete() {
+            super.onComplete();
+            ended();
+        }
+
+        // The next round reopens the stream if the container is still running
+        private void ended() {
+            if (ended.compareAndSet(false, true)) subscriptions.remove(key, this);
+        }
+
+        @Override
+        public void close() {
+            ended.set(true);
+            try {
+                super.close();
+            } catch (Exception ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.ellipsis.homelabmonitor.docker;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.api.model.EventType;
+
+public class DockerClientEventSource implements DockerEventSource {
+
+    private final DockerClient dockerClient;
+
+    public DockerClientEventSource(DockerClient dockerClient) {
+        this.dockerClient = dockerClient;
+    }
+
+    @Override
+    public void subscribe(Long since, ResultCallback<Event> callback) {
+        var cmd = dockerClient.eventsCmd()
+                .withEventTypeFilter(EventType.CONTAINER)
+                .withEventFilter(ContainerEventStream.HANDLED_ACTIONS);
+        if (since != null) cmd = cmd.withSince(String.valueOf(since));
+        cmd.exec(callback);
+    }
+}
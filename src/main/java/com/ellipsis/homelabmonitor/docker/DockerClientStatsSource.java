@@ -0,0 +1,14 @@
+package com.ellipsis.homelabmonitor.docker;
+
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Statistics;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DockerClientStatsSource implements DockerStatsSource {
+
+    @Override
+    public void subscribe(DockerEndpoint endpoint, String containerId, ResultCallback<Statistics> callback) {
+        endpoint.getStreamingClient().statsCmd(containerId).withNoStream(false).exec(callback);
+    }
+}
@@ -0,0 +1,68 @@
+package com.ellipsis.homelabmonitor.docker;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.core.DefaultDockerClientConfig;
+import com.github.dockerjava.core.DockerClientImpl;
+import com.github.dockerjava.transport.DockerHttpClient;
+import com.github.dockerjava.zerodep.ZerodepDockerHttpClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(DockerProperties.class)
+public class DockerConfig {
+
+    @Bean(destroyMethod = "close")
+    public DockerEndpoints dockerEndpoints(DockerProperties properties) {
+        List<DockerProperties.Host> hosts = properties.getHosts();
+        if (hosts.isEmpty()) {
+            String url = System.getenv("DOCKER_HOST");
+            if (url == null || url.isEmpty()) url = "tcp://localhost:2375";
+
+            DockerProperties.Host local = new DockerProperties.Host();
+            local.setName("local");
+            local.setUrl(url);
+            hosts = List.of(local);
+        }
+
+        List<DockerEndpoint> endpoints = new ArrayList<>();
+        for (DockerProperties.Host host : hosts) {
+            String name = host.getName() != null ? host.getName() : host.getUrl();
+            Duration timeout = Duration.ofMillis(host.getTimeoutMs() != null
+                    ? host.getTimeoutMs() : properties.getTimeoutMs());
+
+            log.info("Connecting to Docker host {} at: {}", name, host.getUrl());
+
+            endpoints.add(new DockerEndpoint(name,
+                    client(host.getUrl(), timeout, true),
+                    client(host.getUrl(), timeout, false),
+                    timeout,
+                    Duration.ofMillis(properties.getActionTimeoutMs()),
+                    new CircuitBreaker(properties.getBreakerFailureThreshold(),
+                            Duration.ofMillis(properties.getBreakerOpenMs()))));
+        }
+        return new DockerEndpoints(endpoints);
+    }
+
+    private static DockerClient client(String url, Duration timeout, boolean withResponseTimeout) {
+        DefaultDockerClientConfig config = DefaultDockerClientConfig
+                .createDefaultConfigBuilder()
+                .withDockerHost(url)
+                .build();
+
+        ZerodepDockerHttpClient.Builder builder = new ZerodepDockerHttpClient.Builder()
+                .dockerHost(config.getDockerHost())
+                .connectionTimeout(timeout);
+        if (withResponseTimeout) builder.responseTimeout(timeout);
+        DockerHttpClient httpClient = builder.build();
+
+        return DockerClientImpl.getInstance(config, httpClient);
+    }
+}
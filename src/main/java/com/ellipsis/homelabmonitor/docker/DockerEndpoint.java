@@ -0,0 +1,110 @@
+package com.ellipsis.homelabmonitor.docker;
+
+import com.github.dockerjava.api.DockerClient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// One Docker host with its own collector thread, timeout and circuit breaker,
+// so a dead host only ever stalls its own calls. Container actions (restart, stop) wait for
+// the container's stop grace period, so they run on a separate thread with their own timeout.
+public class DockerEndpoint implements Closeable {
+
+    private final String name;
+    private final DockerClient client;
+    private final DockerClient streamingClient;
+    private final Duration timeout;
+    private final Duration actionTimeout;
+    private final CircuitBreaker breaker;
+    private final ThreadPoolExecutor collector;
+    private final ExecutorService actions;
+
+    public DockerEndpoint(String name,
+                          DockerClient client,
+                          DockerClient streamingClient,
+                          Duration timeout,
+                          Duration actionTimeout,
+                          CircuitBreaker breaker) {
+        this.name = name;
+        this.client = client;
+        this.streamingClient = streamingClient;
+        this.timeout = timeout;
+        this.actionTimeout = actionTimeout;
+        this.breaker = breaker;
+        this.collector = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(4), r -> {
+                    Thread thread = new Thread(r, "docker-collector-" + name);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.actions = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "docker-actions-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Long-lived streams (events) use a client without a response timeout
+    public DockerClient getStreamingClient() {
+        return streamingClient;
+    }
+
+    public CircuitBreaker.State getBreakerState() {
+        return breaker.getState();
+    }
+
+    public <T> CompletableFuture<T> call(Function<DockerClient, T> action) {
+        if (!breaker.allowRequest()) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Circuit open for Docker host " + name));
+        }
+
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> action.apply(client), collector);
+        } catch (RejectedExecutionException e) {
+            breaker.recordFailure();
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Collector for Docker host " + name + " is backed up"));
+        }
+
+        return future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((result, ex) -> {
+                    if (ex == null) breaker.recordSuccess();
+                    else breaker.recordFailure();
+                });
+    }
+
+    // Restart, stop and the like, on the client without a response timeout. Fails fast while
+    // the circuit is open, but a slow or failed action says nothing about the host's health,
+    // so it never counts towards the breaker.
+    public <T> CompletableFuture<T> act(Function<DockerClient, T> action) {
+        if (breaker.getState() == CircuitBreaker.State.OPEN) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Circuit open for Docker host " + name));
+        }
+        return CompletableFuture.supplyAsync(() -> action.apply(streamingClient), actions)
+                .orTimeout(actionTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() throws IOException {
+        collector.shutdownNow();
+        actions.shutdownNow();
+        client.close();
+        if (streamingClient != client) streamingClient.close();
+    }
+}
@@ -0,0 +1,40 @@
+package com.ellipsis.homelabmonitor.docker;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+public class DockerEndpoints {
+
+    private final Map<String, DockerEndpoint> byName = new LinkedHashMap<>();
+
+    public DockerEndpoints(List<DockerEndpoint> endpoints) {
+        for (DockerEndpoint endpoint : endpoints) {
+            if (byName.putIfAbsent(endpoint.getName(), endpoint) != null) {
+                throw new IllegalArgumentException("Duplicate Docker host name: " + endpoint.getName());
+            }
+        }
+    }
+
+    public List<DockerEndpoint> all() {
+        return List.copyOf(byName.values());
+    }
+
+    public Optional<DockerEndpoint> get(String name) {
+        return Optional.ofNullable(byName.get(name));
+    }
+
+    public void close() {
+        for (DockerEndpoint endpoint : byName.values()) {
+            try {
+                endpoint.close();
+            } catch (Exception e) {
+                log.warn("Failed to close Docker client for {}: {}", endpoint.getName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.ellipsis.homelabmonitor.docker;
+
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Event;
+
+// Seam over the Docker events endpoint so the stream handling can be driven by a fake in tests
+public interface DockerEventSource {
+
+    // Streams container events into the callback, replaying from since (epoch seconds) when set
+    void subscribe(Long since, ResultCallback<Event> callback);
+}
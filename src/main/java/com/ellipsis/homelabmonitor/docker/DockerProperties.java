@@ -0,0 +1,28 @@
+package com.ellipsis.homelabmonitor.docker;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "monitor.docker")
+public class DockerProperties {
+
+    // Falls back to a single host from DOCKER_HOST when empty
+    private List<Host> hosts = new ArrayList<>();
+
+    private long timeoutMs = 5000;
+    // Restart and stop wait out the container's stop grace period (10s by default)
+    private long actionTimeoutMs = 30000;
+    private int breakerFailureThreshold = 3;
+    private long breakerOpenMs = 60000;
+
+    @Data
+    public static class Host {
+        private String name;
+        private String url;
+        private Long timeoutMs;
+    }
+}
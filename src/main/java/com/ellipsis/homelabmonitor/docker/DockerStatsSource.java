@@ -0,0 +1,11 @@
+package com.ellipsis.homelabmonitor.docker;
+
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Statistics;
+
+// Seam over the Docker stats endpoint so the collector can be driven by a fake in tests
+public interface DockerStatsSource {
+
+    // Streams a container's stats into the callback, about one frame per second until closed
+    void subscribe(DockerEndpoint endpoint, String containerId, ResultCallback<Statistics> callback);
+}
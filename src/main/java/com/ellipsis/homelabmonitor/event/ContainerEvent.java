@@ -1,5 +1,6 @@
 package com.ellipsis.homelabmonitor.event;
 
+import com.ellipsis.homelabmonitor.model.ContainerState;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,10 +13,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 public class ContainerEvent {
+    private String host;
     private String containerId;
     private String containerName;
-    private String previousStatus;
-    private String currentStatus;
+    private ContainerState previousStatus;
+    private ContainerState currentStatus;
     private LocalDateTime occurredAt;
     private String eventType; // CONTAINER_DOWN, CONTAINER_UP, CONTAINER_RESTARTED
 }
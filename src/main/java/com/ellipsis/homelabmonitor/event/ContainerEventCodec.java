@@ -0,0 +1,217 @@
+package com.ellipsis.homelabmonitor.event;
+
+import com.ellipsis.homelabmonitor.model.ContainerState;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+// Fixed binary layout for ContainerEvent on the Kafka topic (version 2):
+//
+//   u8      version (2)
+//   u8      event type     ContainerEventType ordinal, or 0xFF followed by the name as a string
+//   u8      previous status ContainerState code, 0xFF for null
+//   u8      current status  same as previous status
+//   i64     occurredAt as microseconds since the epoch (UTC), Long.MIN_VALUE for null
+//   string  host
+//   string  containerId
+//   string  containerName
+//
+// A string is a varint of (UTF-8 length + 1) followed by the bytes, 0 meaning null.
+// New fields can only be appended, and readers must ignore trailing bytes they don't know.
+//
+// Version 1 differs only in the statuses: running 0, exited 1, paused 2, unknown 3, or 0xFF
+// followed by the status text as a string. Records still on the topic are translated.
+public final class ContainerEventCodec {
+
+    public static final byte VERSION = 2;
+
+    private static final ContainerEventType[] TYPES = ContainerEventType.values();
+    private static final int STATES = ContainerState.values().length;
+    private static final ContainerState[] V1_STATES =
+            {ContainerState.RUNNING, ContainerState.EXITED, ContainerState.PAUSED, ContainerState.UNKNOWN};
+    private static final int LITERAL = 0xFF;
+
+    private ContainerEventCodec() {
+    }
+
+    public static byte[] encode(ContainerEvent event) {
+        Writer out = new Writer();
+        out.writeByte(VERSION);
+        writeCode(out, typeCode(event.getEventType()), event.getEventType());
+        out.writeByte(statusCode(event.getPreviousStatus()));
+        out.writeByte(statusCode(event.getCurrentStatus()));
+        out.writeLong(event.getOccurredAt() == null ? Long.MIN_VALUE : toMicros(event.getOccurredAt()));
+        out.writeString(event.getHost());
+        out.writeString(event.getContainerId());
+        out.writeString(event.getContainerName());
+        return out.toByteArray();
+    }
+
+    public static ContainerEvent decode(byte[] data) {
+        Reader in = new Reader(data);
+        int version = in.readByte();
+        if (version != VERSION && version != 1) {
+            throw new IllegalArgumentException("Unsupported ContainerEvent encoding version " + version);
+        }
+
+        int offset = in.position();
+        int type = in.readByte();
+        String eventType = type == LITERAL
+                ? in.readString()
+                : TYPES[checkCode("event type", type, TYPES.length, offset)].name();
+        ContainerState previousStatus = version == 1 ? readV1Status(in) : readStatus(in);
+        ContainerState currentStatus = version == 1 ? readV1Status(in) : readStatus(in);
+        long micros = in.readLong();
+
+        return ContainerEvent.builder()
+                .eventType(eventType)
+                .previousStatus(previousStatus)
+                .currentStatus(currentStatus)
+                .occurredAt(micros == Long.MIN_VALUE ? null : fromMicros(micros))
+                .host(in.readString())
+                .containerId(in.readString())
+                .containerName(in.readString())
+                .build();
+    }
+
+    private static void writeCode(Writer out, int code, String literal) {
+        out.writeByte(code);
+        if (code == LITERAL) out.writeString(literal);
+    }
+
+    private static int typeCode(String eventType) {
+        for (ContainerEventType type : TYPES) {
+            if (type.name().equals(eventType)) return type.ordinal();
+        }
+        return LITERAL;
+    }
+
+    private static int statusCode(ContainerState state) {
+        return state == null ? LITERAL : state.code();
+    }
+
+    private static ContainerState readStatus(Reader in) {
+        int offset = in.position();
+        int code = in.readByte();
+        return code == LITERAL ? null : ContainerState.fromCode(checkCode("status", code, STATES, offset));
+    }
+
+    private static ContainerState readV1Status(Reader in) {
+        int offset = in.position();
+        int code = in.readByte();
+        return code == LITERAL
+                ? ContainerState.fromLabel(in.readString())
+                : V1_STATES[checkCode("status", code, V1_STATES.length, offset)];
+    }
+
+    // Codes index fixed tables, anything past the end is a corrupt record or a newer writer
+    private static int checkCode(String field, int code, int limit, int offset) {
+        if (code >= limit) {
+            throw new IllegalArgumentException("Unknown " + field + " code " + code + " at offset " + offset
+                    + " of ContainerEvent");
+        }
+        return code;
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), time);
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+
+    private static final class Writer {
+        private byte[] buf = new byte[64];
+        private int pos;
+
+        void writeByte(int b) {
+            ensure(1);
+            buf[pos++] = (byte) b;
+        }
+
+        void writeLong(long v) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buf[pos++] = (byte) (v >>> shift);
+            }
+        }
+
+        void writeVarint(int v) {
+            while ((v & ~0x7F) != 0) {
+                writeByte((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            writeByte(v);
+        }
+
+        void writeString(String s) {
+            if (s == null) {
+                writeVarint(0);
+                return;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length + 1);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        private void ensure(int n) {
+            if (pos + n > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+
+        Reader(byte[] buf) {
+            this.buf = buf;
+        }
+
+        int position() {
+            return pos;
+        }
+
+        int readByte() {
+            if (pos >= buf.length) throw new IllegalArgumentException("Truncated ContainerEvent");
+            return buf[pos++] & 0xFF;
+        }
+
+        long readLong() {
+            long v = 0;
+            for (int i = 0; i < 8; i++) {
+                v = (v << 8) | readByte();
+            }
+            return v;
+        }
+
+        int readVarint() {
+            int v = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                v |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return v;
+            }
+            throw new IllegalArgumentException("Malformed varint in ContainerEvent");
+        }
+
+        String readString() {
+            int length = readVarint() - 1;
+            if (length < 0) return null;
+            if (length > buf.length - pos) throw new IllegalArgumentException("Truncated ContainerEvent");
+            String s = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return s;
+        }
+    }
+}
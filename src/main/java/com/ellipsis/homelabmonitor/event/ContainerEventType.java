@@ -0,0 +1,9 @@
+package com.ellipsis.homelabmonitor.event;
+
+// Wire codes are the ordinals, so new types go at the end
+public enum ContainerEventType {
+    CONTAINER_DOWN,
+    CONTAINER_UP,
+    CONTAINER_RESTARTED,
+    CONTAINER_STOPPED
+}
@@ -0,0 +1,13 @@
+package com.ellipsis.homelabmonitor.kafka;
+
+import com.ellipsis.homelabmonitor.event.ContainerEvent;
+import com.ellipsis.homelabmonitor.event.ContainerEventCodec;
+import org.apache.kafka.common.serialization.Deserializer;
+
+public class ContainerEventDeserializer implements Deserializer<ContainerEvent> {
+
+    @Override
+    public ContainerEvent deserialize(String topic, byte[] data) {
+        return data == null ? null : ContainerEventCodec.decode(data);
+    }
+}
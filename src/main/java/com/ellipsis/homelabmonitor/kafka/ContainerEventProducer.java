@@ -1,33 +1,169 @@
 package com.ellipsis.homelabmonitor.kafka;
 
 import com.ellipsis.homelabmonitor.event.ContainerEvent;
+import com.ellipsis.homelabmonitor.repository.EventOutboxStore;
+import com.ellipsis.homelabmonitor.service.SnapshotWriteBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.RetriableException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Events go through the transactional outbox: publishEvent only queues them for the next
+// write-behind flush, and a relay thread sends the outbox to Kafka in batches, deleting
+// rows once acknowledged. Delivery is at-least-once and never blocks the poll thread.
+// A row that keeps failing for reasons of its own is dead-lettered after maxAttempts.
+@Slf4j
 @Component
 public class ContainerEventProducer {
 
     private static final String TOPIC = "container-events";
+
     private final KafkaTemplate<String, ContainerEvent> kafkaTemplate;
+    private final SnapshotWriteBuffer writeBuffer;
+    private final EventOutboxStore outboxStore;
+    private final int batchSize;
+    private final long relayIntervalMs;
+    private final int maxAttempts;
+    private final Counter publishedEvents;
+    private final Counter relayFailures;
+    private final Timer sendTimer;
+    private final Counter sendFailures;
+    private final Counter deadLettered;
+    private final ScheduledExecutorService relay = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    public ContainerEventProducer(KafkaTemplate<String, ContainerEvent> kafkaTemplate) {
+    public ContainerEventProducer(KafkaTemplate<String, ContainerEvent> kafkaTemplate,
+                                  SnapshotWriteBuffer writeBuffer,
+                                  EventOutboxStore outboxStore,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${monitor.outbox.batch-size:500}") int batchSize,
+                                  @Value("${monitor.outbox.relay-interval-ms:1000}") long relayIntervalMs,
+                                  @Value("${monitor.outbox.max-attempts:5}") int maxAttempts) {
         this.kafkaTemplate = kafkaTemplate;
+        this.writeBuffer = writeBuffer;
+        this.outboxStore = outboxStore;
+        this.batchSize = batchSize;
+        this.relayIntervalMs = relayIntervalMs;
+        this.maxAttempts = maxAttempts;
+        this.publishedEvents = meterRegistry.counter("monitor.outbox.published");
+        this.relayFailures = meterRegistry.counter("monitor.outbox.relay.failures");
+        this.sendTimer = Timer.builder("monitor.kafka.send")
+                .description("Time from send to broker acknowledgement per event")
+                .register(meterRegistry);
+        this.sendFailures = meterRegistry.counter("monitor.kafka.send.failures");
+        this.deadLettered = meterRegistry.counter("monitor.outbox.dead.lettered");
+    }
+
+    @PostConstruct
+    public void start() {
+        relay.scheduleWithFixedDelay(this::relayQuietly, relayIntervalMs, relayIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        relay.shutdownNow();
     }
 
     public void publishEvent(ContainerEvent event) {
+        writeBuffer.enqueueEvent(event);
+    }
+
+    private void relayQuietly() {
+        try {
+            // A full batch means there may be more waiting
+            int sent;
+            do {
+                sent = relayBatch();
+            } while (sent == batchSize);
+        } catch (Exception e) {
+            relayFailures.increment();
+            log.warn("Outbox relay failed: {}", e.getMessage());
+        }
+    }
+
+    // Sends the oldest outbox rows as one producer batch. Only the acknowledged prefix is
+    // deleted, the rest is retried next round so a container's events stay in order. A row
+    // that fails on its own account is counted against it; once dead-lettered, the rows
+    // behind it no longer wait for it.
+    public int relayBatch() {
+        List<EventOutboxStore.Entry> entries = outboxStore.next(batchSize);
+        if (entries.isEmpty()) return 0;
+
+        List<CompletableFuture<SendResult<String, ContainerEvent>>> sends = new ArrayList<>(entries.size());
         try {
-            kafkaTemplate.send(TOPIC, event.getContainerName(), event)
-                    .whenComplete((result, ex) -> {
-                        if (ex != null) {
-                            System.out.println("Kafka unavailable, skipping event for: "
-                                    + event.getContainerName());
-                        } else  {
-                            System.out.println("Published event: " + event.getEventType()
-                                + " for " + event.getContainerName());
-                        }
-                    });
+            for (EventOutboxStore.Entry entry : entries) {
+                CompletableFuture<SendResult<String, ContainerEvent>> send;
+                try {
+                    send = kafkaTemplate.send(TOPIC, entry.event().getContainerName(), entry.event());
+                } catch (Exception e) {
+                    // Serializing happens inside send(), so a bad row throws here
+                    if (isRetriable(e)) throw e;
+                    send = CompletableFuture.failedFuture(e);
+                }
+                long start = System.nanoTime();
+                sends.add(send.whenComplete((result, ex) -> {
+                    if (ex == null) sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    else sendFailures.increment();
+                }));
+            }
+            kafkaTemplate.flush();
         } catch (Exception e) {
-            System.out.println("Kafka unavailable, skipping event: " + e.getMessage());
+            log.warn("Kafka unavailable, {} events stay in the outbox: {}", entries.size(), e.getMessage());
+        }
+
+        List<Long> acknowledged = new ArrayList<>(sends.size());
+        for (int i = 0; i < sends.size(); i++) {
+            long id = entries.get(i).id();
+            try {
+                sends.get(i).join();
+            } catch (Exception e) {
+                relayFailures.increment();
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                log.warn("Kafka did not acknowledge event {}: {}", id, cause.getMessage());
+                if (isRetriable(cause) || !deadLetterAfterFailure(id, cause)) break;
+                continue;
+            }
+            acknowledged.add(id);
+        }
+
+        outboxStore.delete(acknowledged);
+        publishedEvents.increment(acknowledged.size());
+        return acknowledged.size();
+    }
+
+    // Returns true once the row has used up its attempts and was moved to the dead letters
+    private boolean deadLetterAfterFailure(long id, Throwable cause) {
+        int attempts = outboxStore.recordFailure(id, cause.toString());
+        if (attempts < maxAttempts) return false;
+        outboxStore.deadLetter(id);
+        deadLettered.increment();
+        log.warn("Event {} failed {} times, moved to event_outbox_dead_letter", id, attempts);
+        return true;
+    }
+
+    // Broker and network trouble clears up by itself and says nothing about the row
+    private static boolean isRetriable(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof RetriableException) return true;
         }
+        return false;
     }
 }
@@ -0,0 +1,15 @@
+package com.ellipsis.homelabmonitor.kafka;
+
+import com.ellipsis.homelabmonitor.event.ContainerEvent;
+import com.ellipsis.homelabmonitor.event.ContainerEventCodec;
+import org.apache.kafka.common.serialization.Serializer;
+
+// Binary value serializer for container-events, see ContainerEventCodec for the layout.
+// Unlike JsonSerializer it adds no type headers.
+public class ContainerEventSerializer implements Serializer<ContainerEvent> {
+
+    @Override
+    public byte[] serialize(String topic, ContainerEvent event) {
+        return event == null ? null : ContainerEventCodec.encode(event);
+    }
+}
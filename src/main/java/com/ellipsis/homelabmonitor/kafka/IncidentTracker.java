@@ -0,0 +1,58 @@
+package com.ellipsis.homelabmonitor.kafka;
+
+import com.ellipsis.homelabmonitor.event.ContainerEvent;
+import com.ellipsis.homelabmonitor.model.ContainerState;
+import com.ellipsis.homelabmonitor.repository.IncidentStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Consumes container-events and pairs each drop out of running with the next return to it.
+// Events are keyed by container, so a container's events arrive in order on one partition.
+// Open incidents live in container_incident, which makes the consumer restart-safe.
+@Slf4j
+@Component
+public class IncidentTracker {
+
+    private final IncidentStore incidentStore;
+    private final Counter openedIncidents;
+    private final Timer incidentDuration;
+
+    public IncidentTracker(IncidentStore incidentStore, MeterRegistry meterRegistry) {
+        this.incidentStore = incidentStore;
+        this.openedIncidents = meterRegistry.counter("monitor.incidents.opened");
+        // Mean of this timer is the running MTTR
+        this.incidentDuration = Timer.builder("monitor.incidents.duration")
+                .description("Time from a container going down to it running again")
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(topics = "container-events",
+            groupId = "${monitor.incidents.group-id:homelab-monitor-incidents}",
+            autoStartup = "${monitor.incidents.enabled:true}")
+    public void onEvent(ContainerEvent event) {
+        if (event.getContainerName() == null || event.getHost() == null) return;
+        LocalDateTime at = event.getOccurredAt() != null ? event.getOccurredAt() : LocalDateTime.now();
+
+        boolean wasRunning = event.getPreviousStatus() == ContainerState.RUNNING;
+        boolean isRunning = event.getCurrentStatus() == ContainerState.RUNNING;
+
+        if (wasRunning && !isRunning) {
+            if (incidentStore.open(event.getHost(), event.getContainerName(), at)) {
+                openedIncidents.increment();
+                log.info("Incident opened for {}/{}", event.getHost(), event.getContainerName());
+            }
+        } else if (!wasRunning && isRunning) {
+            incidentStore.close(event.getHost(), event.getContainerName(), at).ifPresent(duration -> {
+                incidentDuration.record(duration.isNegative() ? Duration.ZERO : duration);
+                log.info("Incident closed for {}/{} after {}s", event.getHost(), event.getContainerName(), duration.toSeconds());
+            });
+        }
+    }
+}
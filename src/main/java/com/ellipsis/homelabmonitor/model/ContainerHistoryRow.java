@@ -0,0 +1,15 @@
+package com.ellipsis.homelabmonitor.model;
+
+import java.time.LocalDateTime;
+
+// Read-only view of a container_info row for history queries. Selected straight into this
+// record, so Hibernate doesn't build and track a managed entity per row. Serializes the
+// same as ContainerInfo: rows written before the state column, and change-log intervals,
+// get their state parsed from status the way ContainerInfo.getState() does.
+public record ContainerHistoryRow(Long dbID, String host, String id, String name, String status, String image,
+                                  LocalDateTime checkedAt, ContainerState state) {
+
+    public ContainerHistoryRow {
+        if (state == null) state = ContainerState.parse(status);
+    }
+}
@@ -0,0 +1,11 @@
+package com.ellipsis.homelabmonitor.model;
+
+import java.time.LocalDateTime;
+
+// endedAt and durationMs are null while the container is still down
+public record ContainerIncident(long id,
+                                String host,
+                                String containerName,
+                                LocalDateTime startedAt,
+                                LocalDateTime endedAt,
+                                Long durationMs) { }
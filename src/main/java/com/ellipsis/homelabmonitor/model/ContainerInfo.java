@@ -20,9 +20,18 @@ public class ContainerInfo {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long dbID;
 
+    private String host;
     private String id;
     private String name;
     private String status;
     private String image;
     private LocalDateTime checkedAt;
+
+    // Parsed from status when the row is built; rows that only carry the text parse on read
+    @Convert(converter = ContainerStateConverter.class)
+    private ContainerState state;
+
+    public ContainerState getState() {
+        return state != null ? state : ContainerState.parse(status);
+    }
 }
@@ -0,0 +1,17 @@
+package com.ellipsis.homelabmonitor.model;
+
+import java.time.LocalDateTime;
+
+// One resource sample of a container. Network and block I/O are cumulative byte counters
+// since the container started, memory excludes reclaimable page cache like `docker stats`.
+public record ContainerMetrics(String host,
+                               String containerId,
+                               String containerName,
+                               LocalDateTime sampledAt,
+                               double cpuPercent,
+                               long memoryBytes,
+                               long memoryLimitBytes,
+                               long networkRxBytes,
+                               long networkTxBytes,
+                               long blockReadBytes,
+                               long blockWriteBytes) { }
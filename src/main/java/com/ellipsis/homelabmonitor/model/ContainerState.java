@@ -0,0 +1,72 @@
+package com.ellipsis.homelabmonitor.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+// Normalized container state. Parsed once from Docker's status text ("Up 2 hours",
+// "Exited (0) 3 minutes ago", ...) and stored as its code in a smallint column.
+// Codes are persisted and sent on the wire, so they never change.
+public enum ContainerState {
+    UNKNOWN(0, "unknown"),
+    RUNNING(1, "running"),
+    EXITED(2, "exited"),
+    PAUSED(3, "paused");
+
+    private static final ContainerState[] BY_CODE = {UNKNOWN, RUNNING, EXITED, PAUSED};
+
+    private final short code;
+    private final String label;
+
+    ContainerState(int code, String label) {
+        this.code = (short) code;
+        this.label = label;
+    }
+
+    public short code() {
+        return code;
+    }
+
+    @JsonValue
+    public String label() {
+        return label;
+    }
+
+    public boolean isRunning() {
+        return this == RUNNING;
+    }
+
+    // Case-insensitive prefix match without copying the string. Also accepts the labels,
+    // so parse(state.label()) == state.
+    public static ContainerState parse(String status) {
+        if (status == null || status.isEmpty()) return UNKNOWN;
+        switch (status.charAt(0)) {
+            case 'u', 'U' -> {
+                if (startsWith(status, "up")) return RUNNING;
+            }
+            case 'r', 'R' -> {
+                if (startsWith(status, "restarting") || startsWith(status, "running")) return RUNNING;
+            }
+            case 'e', 'E' -> {
+                if (startsWith(status, "exited")) return EXITED;
+            }
+            case 'p', 'P' -> {
+                if (startsWith(status, "paused")) return PAUSED;
+            }
+            default -> { }
+        }
+        return UNKNOWN;
+    }
+
+    public static ContainerState fromCode(int code) {
+        return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : UNKNOWN;
+    }
+
+    @JsonCreator
+    public static ContainerState fromLabel(String label) {
+        return label == null ? null : parse(label);
+    }
+
+    private static boolean startsWith(String status, String prefix) {
+        return status.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+}
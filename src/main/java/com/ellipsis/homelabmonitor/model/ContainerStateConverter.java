@@ -0,0 +1,18 @@
+package com.ellipsis.homelabmonitor.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter
+public class ContainerStateConverter implements AttributeConverter<ContainerState, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(ContainerState state) {
+        return state == null ? null : state.code();
+    }
+
+    @Override
+    public ContainerState convertToEntityAttribute(Short code) {
+        return code == null ? null : ContainerState.fromCode(code);
+    }
+}
@@ -0,0 +1,31 @@
+package com.ellipsis.homelabmonitor.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One row per stretch of time a container spent in the same normalized state
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "container_state_interval")
+public class ContainerStateInterval {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String host;
+    private String containerId;
+    private String containerName;
+    private String image;
+    private String status;
+    private LocalDateTime validFrom;
+    private LocalDateTime validTo;
+}
@@ -27,5 +27,10 @@ public class DailyReport {
     private int runningSnapshots;
     private double uptimePercentage;
     private int incidentCount;
+    // From container_metrics, null when the container had no resource samples
+    private Double averageCpuPercentage;
+    private Double peakCpuPercentage;
+    private Long averageMemoryBytes;
+    private Long peakMemoryBytes;
     private LocalDateTime generatedAt;
 }
@@ -0,0 +1,12 @@
+package com.ellipsis.homelabmonitor.model;
+
+// Per-container incident figures over a window. mttrMs only counts recovered incidents,
+// downtimeMs counts open ones up to now.
+public record IncidentStats(String host,
+                            String containerName,
+                            int incidents,
+                            int openIncidents,
+                            Long mttrMs,
+                            long downtimeMs,
+                            int incidentsLastHour,
+                            boolean flapping) { }
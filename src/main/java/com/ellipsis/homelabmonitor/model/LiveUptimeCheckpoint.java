@@ -0,0 +1,33 @@
+package com.ellipsis.homelabmonitor.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Periodic copy of the in-memory daily counters, so a restart resumes the day instead of starting over
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "live_uptime_checkpoint",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"report_date", "container_name"}))
+public class LiveUptimeCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private LocalDate reportDate;
+    private String containerName;
+    private int totalSnapshots;
+    private int runningSnapshots;
+    private int incidentCount;
+    private String lastStatus;
+    private LocalDateTime updatedAt;
+}
@@ -27,5 +27,10 @@ public class MonthlyReport {
     private int totalIncidents;
     private int daysWithIncidents;
     private int totalDaysReported;
+    // From container_metrics, null when the container had no resource samples
+    private Double averageCpuPercentage;
+    private Double peakCpuPercentage;
+    private Long averageMemoryBytes;
+    private Long peakMemoryBytes;
     private LocalDateTime generatedAt;
 }
@@ -0,0 +1,138 @@
+package com.ellipsis.homelabmonitor.repository;
+
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import com.ellipsis.homelabmonitor.model.ContainerState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Consumer;
+
+// History reads that don't materialize the whole time range: keyset pages ordered by
+// (time, id) and a forward-only cursor for streaming. Reads container_info, or the state
+// intervals in change-log mode (one row per state change, stamped with when it began).
+@Repository
+public class ContainerHistoryQueries {
+
+    private static final String SNAPSHOT_SELECT =
+            "SELECT db_id AS row_id, host, id, name, status, state, image, checked_at, checked_at AS sort_time "
+                    + "FROM container_info WHERE checked_at > ?";
+
+    private static final String INTERVAL_SELECT =
+            "SELECT id AS row_id, host, container_id AS id, container_name AS name, status, "
+                    + "CAST(NULL AS smallint) AS state, image, "
+                    + "greatest(valid_from, ?) AS checked_at, valid_from AS sort_time "
+                    + "FROM container_state_interval WHERE valid_to >= ?";
+
+    // Position after the last row of a page, opaque to clients
+    public record Cursor(LocalDateTime time, long id) {
+
+        public String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((time + "_" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String value) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                int split = raw.lastIndexOf('_');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, split)), Long.parseLong(raw.substring(split + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + value);
+            }
+        }
+    }
+
+    public record Page(List<ContainerInfo> items, Cursor next) { }
+
+    private static final RowMapper<ContainerInfo> ROW_MAPPER = (rs, i) -> ContainerInfo.builder()
+            .dbID(rs.getLong("row_id"))
+            .host(rs.getString("host"))
+            .id(rs.getString("id"))
+            .name(rs.getString("name"))
+            .status(rs.getString("status"))
+            .state(rs.getObject("state") == null ? null : ContainerState.fromCode(rs.getShort("state")))
+            .image(rs.getString("image"))
+            .checkedAt(rs.getObject("checked_at", LocalDateTime.class))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean changeLogMode;
+
+    public ContainerHistoryQueries(JdbcTemplate jdbcTemplate,
+                                   DataSource dataSource,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${monitor.storage.mode:snapshot}") String storageMode,
+                                   @Value("${monitor.history.stream-fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        // The PostgreSQL driver only uses a server-side cursor with a fetch size inside a transaction
+        this.streamingTemplate = new JdbcTemplate(dataSource);
+        this.streamingTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.changeLogMode = "changelog".equalsIgnoreCase(storageMode);
+    }
+
+    public Page page(LocalDateTime since, String host, String name, Cursor after, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = select(since, host, name, args);
+        if (after != null) {
+            sql.append(changeLogMode ? " AND (valid_from, id) > (?, ?)" : " AND (checked_at, db_id) > (?, ?)");
+            args.add(after.time());
+            args.add(after.id());
+        }
+        sql.append(order()).append(" LIMIT ?");
+        args.add(limit);
+
+        List<ContainerInfo> items = new ArrayList<>();
+        Cursor[] last = {null};
+        jdbcTemplate.query(sql.toString(), rs -> {
+            items.add(ROW_MAPPER.mapRow(rs, items.size()));
+            last[0] = new Cursor(rs.getObject("sort_time", LocalDateTime.class), rs.getLong("row_id"));
+        }, args.toArray());
+
+        return new Page(items, items.size() < limit ? null : last[0]);
+    }
+
+    // Rows are handed over one at a time as they come off the cursor
+    public void stream(LocalDateTime since, String host, String name, Consumer<ContainerInfo> sink) {
+        List<Object> args = new ArrayList<>();
+        String sql = select(since, host, name, args).append(order()).toString();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            int[] row = {0};
+            streamingTemplate.query(sql, rs -> {
+                sink.accept(ROW_MAPPER.mapRow(rs, row[0]++));
+            }, args.toArray());
+        });
+    }
+
+    private StringBuilder select(LocalDateTime since, String host, String name, List<Object> args) {
+        StringBuilder sql = new StringBuilder(changeLogMode ? INTERVAL_SELECT : SNAPSHOT_SELECT);
+        if (changeLogMode) args.add(since);
+        args.add(since);
+        if (host != null) {
+            sql.append(" AND host = ?");
+            args.add(host);
+        }
+        if (name != null) {
+            sql.append(changeLogMode ? " AND container_name = ?" : " AND name = ?");
+            args.add(name);
+        }
+        return sql;
+    }
+
+    private String order() {
+        return changeLogMode ? " ORDER BY valid_from, id" : " ORDER BY checked_at, db_id";
+    }
+}
@@ -0,0 +1,48 @@
+package com.ellipsis.homelabmonitor.repository;
+
+import com.ellipsis.homelabmonitor.model.ContainerMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// container_metrics is append-only numeric samples, one row per container per sample interval
+@Repository
+public class ContainerMetricsStore {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO container_metrics (host, container_name, sampled_at, cpu_percent, memory_bytes, "
+                    + "memory_limit_bytes, net_rx_bytes, net_tx_bytes, block_read_bytes, block_write_bytes) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public ContainerMetricsStore(JdbcTemplate jdbcTemplate,
+                                 @Value("${monitor.persistence.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void append(List<ContainerMetrics> samples) {
+        if (samples.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_SQL, samples, batchSize, (ps, m) -> {
+            ps.setString(1, m.host());
+            ps.setString(2, m.containerName());
+            ps.setObject(3, m.sampledAt());
+            ps.setFloat(4, (float) m.cpuPercent());
+            ps.setLong(5, m.memoryBytes());
+            ps.setLong(6, m.memoryLimitBytes());
+            ps.setLong(7, m.networkRxBytes());
+            ps.setLong(8, m.networkTxBytes());
+            ps.setLong(9, m.blockReadBytes());
+            ps.setLong(10, m.blockWriteBytes());
+        });
+    }
+
+    public int deleteBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM container_metrics WHERE sampled_at < ?", cutoff);
+    }
+}
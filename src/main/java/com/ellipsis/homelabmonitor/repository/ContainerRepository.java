@@ -1,24 +1,44 @@
 package com.ellipsis.homelabmonitor.repository;
 
+import com.ellipsis.homelabmonitor.model.ContainerHistoryRow;
 import com.ellipsis.homelabmonitor.model.ContainerInfo;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface ContainerRepository extends JpaRepository<ContainerInfo, Long> {
-    List<ContainerInfo> findByCheckedAtAfter(LocalDateTime since);
-    List<ContainerInfo> findByNameAndCheckedAtAfter(String name, LocalDateTime since);
-    List<ContainerInfo> findByCheckedAtBetween(LocalDateTime start, LocalDateTime end);
+    List<ContainerHistoryRow> findByCheckedAtAfter(LocalDateTime since);
+    List<ContainerHistoryRow> findByNameAndCheckedAtAfter(String name, LocalDateTime since);
+    List<ContainerHistoryRow> findByHostAndCheckedAtAfter(String host, LocalDateTime since);
+    List<ContainerHistoryRow> findByHostAndNameAndCheckedAtAfter(String host, String name, LocalDateTime since);
+    List<ContainerHistoryRow> findByCheckedAtBetween(LocalDateTime start, LocalDateTime end);
 
-    @Modifying
-    @Transactional
-    @Query("DELETE FROM ContainerInfo c WHERE c.checkedAt < :cutoff")
-    void deleteByCheckedAtBefore(@Param("cutoff") LocalDateTime cutoff);
+    // Polls per bucket, running polls, and running <-> not running flips between consecutive polls
+    @Query(value = """
+            SELECT bucket AS "bucket",
+                   count(*) AS "observed",
+                   count(*) FILTER (WHERE running) AS "running",
+                   count(*) FILTER (WHERE running <> prev_running) AS "stateChanges"
+            FROM (
+                SELECT CAST(floor(extract(epoch FROM checked_at) / :bucketSeconds) AS bigint) AS bucket,
+                       state = 1 AS running,
+                       lag(state = 1) OVER (PARTITION BY host ORDER BY checked_at, db_id) AS prev_running
+                FROM container_info
+                WHERE name = :name
+                  AND (CAST(:host AS varchar) IS NULL OR host = :host)
+                  AND checked_at >= :start AND checked_at < :end
+            ) s
+            GROUP BY bucket
+            ORDER BY bucket
+            """, nativeQuery = true)
+    List<SeriesBucket> findSeries(@Param("name") String name,
+                                  @Param("host") String host,
+                                  @Param("start") LocalDateTime start,
+                                  @Param("end") LocalDateTime end,
+                                  @Param("bucketSeconds") long bucketSeconds);
 }
@@ -0,0 +1,52 @@
+package com.ellipsis.homelabmonitor.repository;
+
+import com.ellipsis.homelabmonitor.event.ContainerEvent;
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Bulk insert path for snapshot rows. ContainerInfo uses IDENTITY ids, which stops
+// Hibernate from batching saveAll, so the rows go out as JDBC batches instead
+// (rewritten into multi-row INSERTs by the driver with reWriteBatchedInserts).
+@Repository
+@ConditionalOnProperty(name = "monitor.storage.mode", havingValue = "snapshot", matchIfMissing = true)
+public class ContainerSnapshotWriter implements SnapshotSink {
+
+    static final String INSERT_SQL =
+            "INSERT INTO container_info (host, id, name, status, image, checked_at, state) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EventOutboxStore outboxStore;
+    private final int batchSize;
+
+    public ContainerSnapshotWriter(JdbcTemplate jdbcTemplate,
+                                   EventOutboxStore outboxStore,
+                                   @Value("${monitor.persistence.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.outboxStore = outboxStore;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    @Transactional
+    public int write(List<ContainerInfo> containers, List<ContainerEvent> events) {
+        outboxStore.append(events);
+        if (containers.isEmpty()) return 0;
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, containers, batchSize, (ps, c) -> {
+            ps.setString(1, c.getHost());
+            ps.setString(2, c.getId());
+            ps.setString(3, c.getName());
+            ps.setString(4, c.getStatus());
+            ps.setString(5, c.getImage());
+            ps.setObject(6, c.getCheckedAt());
+            ps.setShort(7, c.getState().code());
+        });
+        return containers.size();
+    }
+}
@@ -0,0 +1,60 @@
+package com.ellipsis.homelabmonitor.repository;
+
+import com.ellipsis.homelabmonitor.model.ContainerStateInterval;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ContainerStateIntervalRepository extends JpaRepository<ContainerStateInterval, Long> {
+    List<ContainerStateInterval> findByValidToGreaterThanEqualOrderByValidFromAsc(LocalDateTime since);
+    List<ContainerStateInterval> findByHostAndValidToGreaterThanEqualOrderByValidFromAsc(String host, LocalDateTime since);
+    List<ContainerStateInterval> findByContainerNameAndValidToGreaterThanEqualOrderByValidFromAsc(String name, LocalDateTime since);
+    List<ContainerStateInterval> findByHostAndContainerNameAndValidToGreaterThanEqualOrderByValidFromAsc(String host, String name, LocalDateTime since);
+
+    @Query("SELECT i FROM ContainerStateInterval i WHERE i.validFrom < :end AND i.validTo >= :start " +
+            "ORDER BY i.containerName, i.validFrom")
+    List<ContainerStateInterval> findOverlapping(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ContainerStateInterval i WHERE i.validTo < :cutoff")
+    void deleteByValidToBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // Milliseconds observed and running per bucket (intervals clipped to each bucket),
+    // and state changes that began inside the bucket
+    @Query(value = """
+            SELECT b.bucket AS "bucket",
+                   CAST(round(sum(extract(epoch FROM (least(i.valid_to, b.bucket_end) - greatest(i.valid_from, b.bucket_start))) * 1000)) AS bigint) AS "observed",
+                   CAST(coalesce(round(sum(extract(epoch FROM (least(i.valid_to, b.bucket_end) - greatest(i.valid_from, b.bucket_start))) * 1000)
+                        FILTER (WHERE i.status = 'running')), 0) AS bigint) AS "running",
+                   count(*) FILTER (WHERE i.valid_from >= b.bucket_start
+                                    AND (i.prev_status = 'running') <> (i.status = 'running')) AS "stateChanges"
+            FROM (
+                SELECT n AS bucket,
+                       to_timestamp(n * :bucketSeconds) AT TIME ZONE 'UTC' AS bucket_start,
+                       to_timestamp((n + 1) * :bucketSeconds) AT TIME ZONE 'UTC' AS bucket_end
+                FROM generate_series(CAST(floor(extract(epoch FROM CAST(:start AS timestamp)) / :bucketSeconds) AS bigint),
+                                     CAST(floor(extract(epoch FROM CAST(:end AS timestamp)) / :bucketSeconds) AS bigint)) AS n
+            ) b
+            JOIN (
+                SELECT status, valid_from, valid_to,
+                       lag(status) OVER (PARTITION BY host ORDER BY valid_from) AS prev_status
+                FROM container_state_interval
+                WHERE container_name = :name
+                  AND (CAST(:host AS varchar) IS NULL OR host = :host)
+                  AND valid_from < :end AND valid_to >= :start
+            ) i ON i.valid_from < b.bucket_end AND i.valid_to >= b.bucket_start
+            GROUP BY b.bucket
+            ORDER BY b.bucket
+            """, nativeQuery = true)
+    List<SeriesBucket> findSeries(@Param("name") String name,
+                                  @Param("host") String host,
+                                  @Param("start") LocalDateTime start,
+                                  @Param("end") LocalDateTime end,
+                                  @Param("bucketSeconds") long bucketSeconds);
+}
@@ -0,0 +1,135 @@
+package com.ellipsis.homelabmonitor.repository;
+
+import com.ellipsis.homelabmonitor.event.ContainerEvent;
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Change-log storage: instead of a row per container per poll, keeps one interval
+// row per state and only moves its valid_to forward while the state holds.
+@Repository
+@ConditionalOnProperty(name = "monitor.storage.mode", havingValue = "changelog")
+public class ContainerStateIntervalWriter implements SnapshotSink {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO container_state_interval (host, container_id, container_name, image, status, valid_from, valid_to) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EventOutboxStore outboxStore;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration maxGap;
+
+    // Latest interval per host/name, only touched under the write lock
+    private final Map<String, OpenInterval> open = new HashMap<>();
+    private boolean loaded;
+
+    private record OpenInterval(long id, String status, LocalDateTime validTo) { }
+
+    public ContainerStateIntervalWriter(JdbcTemplate jdbcTemplate,
+                                        EventOutboxStore outboxStore,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${monitor.storage.changelog.max-gap-ms:120000}") long maxGapMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.outboxStore = outboxStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxGap = Duration.ofMillis(maxGapMs);
+    }
+
+    @Override
+    public synchronized int write(List<ContainerInfo> containers, List<ContainerEvent> events) {
+        if (containers.isEmpty() && events.isEmpty()) return 0;
+        if (!loaded && !containers.isEmpty()) loadOpenIntervals(containers.get(0).getCheckedAt());
+
+        // Applied to the in-memory state only once the transaction commits
+        Map<String, OpenInterval> changed = transactionTemplate.execute(status -> {
+            outboxStore.append(events);
+            return apply(containers);
+        });
+        open.putAll(changed);
+        return containers.size();
+    }
+
+    private Map<String, OpenInterval> apply(List<ContainerInfo> containers) {
+        Map<String, OpenInterval> changed = new HashMap<>();
+        Map<Long, LocalDateTime> extendTo = new HashMap<>();
+
+        for (ContainerInfo c : containers) {
+            String key = c.getHost() + "/" + c.getName();
+            String status = c.getState().label();
+            OpenInterval current = changed.containsKey(key) ? changed.get(key) : open.get(key);
+            if (current != null && c.getCheckedAt().isBefore(current.validTo())) continue;
+
+            // A long gap means the monitor wasn't watching, so don't claim it for either state
+            boolean contiguous = current != null
+                    && Duration.between(current.validTo(), c.getCheckedAt()).compareTo(maxGap) <= 0;
+
+            if (contiguous && current.status().equals(status)) {
+                extendTo.put(current.id(), c.getCheckedAt());
+                changed.put(key, new OpenInterval(current.id(), status, c.getCheckedAt()));
+                continue;
+            }
+
+            if (contiguous) extendTo.put(current.id(), c.getCheckedAt());
+            changed.put(key, new OpenInterval(insert(c, status), status, c.getCheckedAt()));
+        }
+
+        // A poll normally shares one checkedAt, so this is usually a single UPDATE
+        Map<LocalDateTime, List<Long>> byTime = new LinkedHashMap<>();
+        extendTo.forEach((id, time) -> byTime.computeIfAbsent(time, t -> new ArrayList<>()).add(id));
+        byTime.forEach((time, ids) -> jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "UPDATE container_state_interval SET valid_to = ? WHERE id = ANY (?)");
+            ps.setObject(1, time);
+            ps.setArray(2, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }));
+
+        return changed;
+    }
+
+    private long insert(ContainerInfo c, String status) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_SQL, new String[]{"id"});
+            ps.setString(1, c.getHost());
+            ps.setString(2, c.getId());
+            ps.setString(3, c.getName());
+            ps.setString(4, c.getImage());
+            ps.setString(5, status);
+            ps.setObject(6, c.getCheckedAt());
+            ps.setObject(7, c.getCheckedAt());
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    // Only intervals recent enough to be extended matter after a restart
+    private void loadOpenIntervals(LocalDateTime now) {
+        jdbcTemplate.query(
+                "SELECT id, host, container_name, status, valid_to FROM container_state_interval "
+                        + "WHERE valid_to >= ? ORDER BY valid_to",
+                rs -> {
+                    open.put(rs.getString("host") + "/" + rs.getString("container_name"),
+                            new OpenInterval(rs.getLong("id"), rs.getString("status"),
+                                    rs.getObject("valid_to", LocalDateTime.class)));
+                },
+                now.minus(maxGap));
+        loaded = true;
+    }
+}
@@ -0,0 +1,87 @@
+package com.ellipsis.homelabmonitor.repository;
+
+import com.ellipsis.homelabmonitor.event.ContainerEvent;
+import com.ellipsis.homelabmonitor.model.ContainerState;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Transactional outbox for container events. append() joins the caller's transaction,
+// so events commit or roll back together with the snapshot rows they were flushed with.
+@Repository
+public class EventOutboxStore {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO event_outbox (host, container_id, container_name, previous_status, current_status, "
+                    + "event_type, occurred_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    public record Entry(long id, ContainerEvent event) { }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EventOutboxStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void append(List<ContainerEvent> events) {
+        if (events.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, e) -> {
+            ps.setString(1, e.getHost());
+            ps.setString(2, e.getContainerId());
+            ps.setString(3, e.getContainerName());
+            ps.setString(4, label(e.getPreviousStatus()));
+            ps.setString(5, label(e.getCurrentStatus()));
+            ps.setString(6, e.getEventType());
+            ps.setObject(7, e.getOccurredAt());
+        });
+    }
+
+    // Oldest first, so events for a container go out in the order they happened
+    public List<Entry> next(int limit) {
+        return jdbcTemplate.query("SELECT * FROM event_outbox ORDER BY id LIMIT ?", (rs, i) -> new Entry(
+                rs.getLong("id"),
+                ContainerEvent.builder()
+                        .host(rs.getString("host"))
+                        .containerId(rs.getString("container_id"))
+                        .containerName(rs.getString("container_name"))
+                        .previousStatus(ContainerState.fromLabel(rs.getString("previous_status")))
+                        .currentStatus(ContainerState.fromLabel(rs.getString("current_status")))
+                        .eventType(rs.getString("event_type"))
+                        .occurredAt(rs.getObject("occurred_at", LocalDateTime.class))
+                        .build()), limit);
+    }
+
+    private static String label(ContainerState state) {
+        return state == null ? null : state.label();
+    }
+
+    // Counts a send that failed because of the row itself, returns the attempts so far
+    public int recordFailure(long id, String error) {
+        String message = error == null || error.length() <= 1000 ? error : error.substring(0, 1000);
+        jdbcTemplate.update("UPDATE event_outbox SET attempts = attempts + 1, last_error = ? WHERE id = ?", message, id);
+        return jdbcTemplate.queryForObject("SELECT attempts FROM event_outbox WHERE id = ?", Integer.class, id);
+    }
+
+    // Moves a row that keeps failing out of the way of the events behind it
+    @Transactional
+    public void deadLetter(long id) {
+        jdbcTemplate.update("INSERT INTO event_outbox_dead_letter (id, host, container_id, container_name, "
+                + "previous_status, current_status, event_type, occurred_at, created_at, attempts, last_error) "
+                + "SELECT id, host, container_id, container_name, previous_status, current_status, event_type, "
+                + "occurred_at, created_at, attempts, last_error FROM event_outbox WHERE id = ?", id);
+        jdbcTemplate.update("DELETE FROM event_outbox WHERE id = ?", id);
+    }
+
+    public void delete(List<Long> ids) {
+        if (ids.isEmpty()) return;
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("DELETE FROM event_outbox WHERE id = ANY (?)");
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        });
+    }
+}
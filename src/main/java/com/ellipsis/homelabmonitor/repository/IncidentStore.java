@@ -0,0 +1,94 @@
+package com.ellipsis.homelabmonitor.repository;
+
+import com.ellipsis.homelabmonitor.model.ContainerIncident;
+import com.ellipsis.homelabmonitor.model.IncidentStats;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// container_incident is the consumer's state: at most one open row per host/name.
+// Both writes are idempotent so redelivered events change nothing.
+@Repository
+public class IncidentStore {
+
+    private static final String OPEN_SQL = """
+            INSERT INTO container_incident (host, container_name, started_at)
+            SELECT ?, ?, ?
+            WHERE NOT EXISTS (SELECT 1 FROM container_incident
+                              WHERE host = ? AND container_name = ? AND ended_at IS NULL)
+            ON CONFLICT (host, container_name, started_at) DO NOTHING
+            """;
+
+    private static final String CLOSE_SQL = """
+            UPDATE container_incident
+            SET ended_at = ?, duration_ms = CAST(round(extract(epoch FROM (CAST(? AS timestamp) - started_at)) * 1000) AS bigint)
+            WHERE host = ? AND container_name = ? AND ended_at IS NULL AND started_at <= ?
+            RETURNING started_at
+            """;
+
+    private static final String STATS_SQL = """
+            SELECT host, container_name,
+                   count(*) AS incidents,
+                   count(*) FILTER (WHERE ended_at IS NULL) AS open_incidents,
+                   CAST(round(avg(duration_ms)) AS bigint) AS mttr_ms,
+                   CAST(sum(coalesce(duration_ms, round(extract(epoch FROM (CAST(? AS timestamp) - started_at)) * 1000))) AS bigint) AS downtime_ms,
+                   count(*) FILTER (WHERE started_at >= ?) AS incidents_last_hour
+            FROM container_incident
+            WHERE started_at >= ?
+            GROUP BY host, container_name
+            ORDER BY container_name, host
+            """;
+
+    private static final RowMapper<ContainerIncident> ROW_MAPPER = (rs, i) -> new ContainerIncident(
+            rs.getLong("id"),
+            rs.getString("host"),
+            rs.getString("container_name"),
+            rs.getObject("started_at", LocalDateTime.class),
+            rs.getObject("ended_at", LocalDateTime.class),
+            rs.getObject("duration_ms", Long.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IncidentStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Returns false if the container already has an open incident
+    public boolean open(String host, String name, LocalDateTime startedAt) {
+        return jdbcTemplate.update(OPEN_SQL, host, name, startedAt, host, name) > 0;
+    }
+
+    // Returns how long the closed incident lasted, empty if none was open
+    public Optional<Duration> close(String host, String name, LocalDateTime endedAt) {
+        List<LocalDateTime> started = jdbcTemplate.queryForList(CLOSE_SQL, LocalDateTime.class,
+                endedAt, endedAt, host, name, endedAt);
+        return started.stream().findFirst().map(s -> Duration.between(s, endedAt));
+    }
+
+    public List<ContainerIncident> findSince(LocalDateTime since, String name) {
+        if (name != null) {
+            return jdbcTemplate.query("SELECT * FROM container_incident WHERE started_at >= ? AND container_name = ? "
+                    + "ORDER BY started_at", ROW_MAPPER, since, name);
+        }
+        return jdbcTemplate.query("SELECT * FROM container_incident WHERE started_at >= ? ORDER BY started_at",
+                ROW_MAPPER, since);
+    }
+
+    public List<IncidentStats> stats(LocalDateTime since, LocalDateTime now, int flappingPerHour) {
+        return jdbcTemplate.query(STATS_SQL, (rs, i) -> new IncidentStats(
+                        rs.getString("host"),
+                        rs.getString("container_name"),
+                        rs.getInt("incidents"),
+                        rs.getInt("open_incidents"),
+                        rs.getObject("mttr_ms", Long.class),
+                        rs.getLong("downtime_ms"),
+                        rs.getInt("incidents_last_hour"),
+                        rs.getInt("incidents_last_hour") >= flappingPerHour),
+                now, now.minusHours(1), since);
+    }
+}
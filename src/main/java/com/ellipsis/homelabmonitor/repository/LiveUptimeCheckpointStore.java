@@ -0,0 +1,65 @@
+package com.ellipsis.homelabmonitor.repository;
+
+import com.ellipsis.homelabmonitor.model.DailyReport;
+import com.ellipsis.homelabmonitor.model.LiveUptimeCheckpoint;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public class LiveUptimeCheckpointStore {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO live_uptime_checkpoint (report_date, container_name, total_snapshots, running_snapshots, "
+                    + "incident_count, last_status, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (report_date, container_name) DO UPDATE SET "
+                    + "total_snapshots = EXCLUDED.total_snapshots, running_snapshots = EXCLUDED.running_snapshots, "
+                    + "incident_count = EXCLUDED.incident_count, last_status = EXCLUDED.last_status, "
+                    + "updated_at = EXCLUDED.updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReportWriter reportWriter;
+
+    public LiveUptimeCheckpointStore(JdbcTemplate jdbcTemplate, ReportWriter reportWriter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.reportWriter = reportWriter;
+    }
+
+    @Transactional
+    public void save(List<LiveUptimeCheckpoint> checkpoints) {
+        if (checkpoints.isEmpty()) return;
+        jdbcTemplate.batchUpdate(UPSERT_SQL, checkpoints, checkpoints.size(), (ps, c) -> {
+            ps.setObject(1, c.getReportDate());
+            ps.setString(2, c.getContainerName());
+            ps.setInt(3, c.getTotalSnapshots());
+            ps.setInt(4, c.getRunningSnapshots());
+            ps.setInt(5, c.getIncidentCount());
+            ps.setString(6, c.getLastStatus());
+            ps.setObject(7, c.getUpdatedAt());
+        });
+    }
+
+    public List<LiveUptimeCheckpoint> findSince(LocalDate date) {
+        return jdbcTemplate.query("SELECT * FROM live_uptime_checkpoint WHERE report_date >= ?",
+                new BeanPropertyRowMapper<>(LiveUptimeCheckpoint.class), date);
+    }
+
+    // Writes the sealed counters over the day's reports and drops the checkpoints in one go.
+    // The counters don't cover CPU and memory, those are aggregated from the day's samples.
+    @Transactional
+    public void seal(LocalDate date, List<DailyReport> reports) {
+        reportWriter.deleteDailyExcept(date, null, null,
+                reports.stream().map(DailyReport::getContainerName).toList());
+        reportWriter.upsertDaily(reports);
+        reportWriter.applyDailyResourceUsage(date);
+        deleteThrough(date);
+    }
+
+    public void deleteThrough(LocalDate date) {
+        jdbcTemplate.update("DELETE FROM live_uptime_checkpoint WHERE report_date <= ?", date);
+    }
+}
@@ -0,0 +1,150 @@
+package com.ellipsis.homelabmonitor.repository;
+
+import com.ellipsis.homelabmonitor.model.DailyReport;
+import com.ellipsis.homelabmonitor.model.MonthlyReport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Writes reports keyed by their natural key (container + date, container + year + month).
+// Regenerating a period overwrites its rows in place, one batched round-trip per chunk,
+// instead of adding duplicates or reading rows back to decide between insert and update.
+// Reports for containers a re-run no longer produces are deleted next to the upserts.
+@Repository
+public class ReportWriter {
+
+    private static final String DAILY_UPSERT_SQL =
+            "INSERT INTO daily_report (container_name, report_date, total_snapshots, running_snapshots, "
+                    + "uptime_percentage, incident_count, average_cpu_percentage, peak_cpu_percentage, "
+                    + "average_memory_bytes, peak_memory_bytes, generated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (container_name, report_date) DO UPDATE SET "
+                    + "total_snapshots = EXCLUDED.total_snapshots, running_snapshots = EXCLUDED.running_snapshots, "
+                    + "uptime_percentage = EXCLUDED.uptime_percentage, incident_count = EXCLUDED.incident_count, "
+                    + "average_cpu_percentage = EXCLUDED.average_cpu_percentage, "
+                    + "peak_cpu_percentage = EXCLUDED.peak_cpu_percentage, "
+                    + "average_memory_bytes = EXCLUDED.average_memory_bytes, "
+                    + "peak_memory_bytes = EXCLUDED.peak_memory_bytes, generated_at = EXCLUDED.generated_at";
+
+    private static final String MONTHLY_UPSERT_SQL =
+            "INSERT INTO monthly_report (container_name, report_month, report_year, average_uptime_percentage, "
+                    + "total_incidents, days_with_incidents, total_days_reported, average_cpu_percentage, "
+                    + "peak_cpu_percentage, average_memory_bytes, peak_memory_bytes, generated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (report_year, report_month, container_name) DO UPDATE SET "
+                    + "average_uptime_percentage = EXCLUDED.average_uptime_percentage, "
+                    + "total_incidents = EXCLUDED.total_incidents, days_with_incidents = EXCLUDED.days_with_incidents, "
+                    + "total_days_reported = EXCLUDED.total_days_reported, "
+                    + "average_cpu_percentage = EXCLUDED.average_cpu_percentage, "
+                    + "peak_cpu_percentage = EXCLUDED.peak_cpu_percentage, "
+                    + "average_memory_bytes = EXCLUDED.average_memory_bytes, "
+                    + "peak_memory_bytes = EXCLUDED.peak_memory_bytes, generated_at = EXCLUDED.generated_at";
+
+    // Fills a day's resource columns from the raw samples, for reports built without reading them
+    private static final String DAILY_RESOURCE_USAGE_SQL = """
+            UPDATE daily_report d
+            SET average_cpu_percentage = m.average_cpu, peak_cpu_percentage = m.peak_cpu,
+                average_memory_bytes = m.average_memory, peak_memory_bytes = m.peak_memory
+            FROM (
+                SELECT container_name,
+                       round(CAST(avg(cpu_percent) AS numeric), 1) AS average_cpu,
+                       round(CAST(max(cpu_percent) AS numeric), 1) AS peak_cpu,
+                       CAST(avg(memory_bytes) AS bigint) AS average_memory,
+                       max(memory_bytes) AS peak_memory
+                FROM container_metrics
+                WHERE sampled_at >= ? AND sampled_at < ?
+                GROUP BY container_name
+            ) m
+            WHERE d.report_date = ? AND d.container_name = m.container_name
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public ReportWriter(JdbcTemplate jdbcTemplate,
+                        @Value("${monitor.persistence.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void upsertDaily(List<? extends DailyReport> reports) {
+        if (reports.isEmpty()) return;
+        jdbcTemplate.batchUpdate(DAILY_UPSERT_SQL, reports, batchSize, (ps, r) -> {
+            ps.setString(1, r.getContainerName());
+            ps.setObject(2, r.getReportDate());
+            ps.setInt(3, r.getTotalSnapshots());
+            ps.setInt(4, r.getRunningSnapshots());
+            ps.setDouble(5, r.getUptimePercentage());
+            ps.setInt(6, r.getIncidentCount());
+            ps.setObject(7, r.getAverageCpuPercentage(), Types.DOUBLE);
+            ps.setObject(8, r.getPeakCpuPercentage(), Types.DOUBLE);
+            ps.setObject(9, r.getAverageMemoryBytes(), Types.BIGINT);
+            ps.setObject(10, r.getPeakMemoryBytes(), Types.BIGINT);
+            ps.setObject(11, r.getGeneratedAt());
+        });
+    }
+
+    // Deletes the day's reports with a name in [fromName, toName) other than the ones kept,
+    // a null bound leaves that side open. Nothing is deleted when nothing is kept, a period
+    // whose raw rows are gone keeps its reports.
+    public int deleteDailyExcept(LocalDate date, String fromName, String toName, Collection<String> keep) {
+        return deleteExcept("DELETE FROM daily_report WHERE report_date = ?", List.of(date), fromName, toName, keep);
+    }
+
+    public int deleteMonthlyExcept(YearMonth month, String fromName, String toName, Collection<String> keep) {
+        return deleteExcept("DELETE FROM monthly_report WHERE report_year = ? AND report_month = ?",
+                List.of(month.getYear(), month.getMonthValue()), fromName, toName, keep);
+    }
+
+    private int deleteExcept(String delete, List<Object> period, String fromName, String toName,
+                             Collection<String> keep) {
+        if (keep.isEmpty()) return 0;
+        StringBuilder sql = new StringBuilder(delete);
+        List<Object> args = new ArrayList<>(period);
+        if (fromName != null) {
+            sql.append(" AND container_name >= ?");
+            args.add(fromName);
+        }
+        if (toName != null) {
+            sql.append(" AND container_name < ?");
+            args.add(toName);
+        }
+        sql.append(" AND NOT (container_name = ANY (?))");
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString());
+            for (int i = 0; i < args.size(); i++) ps.setObject(i + 1, args.get(i));
+            ps.setArray(args.size() + 1, con.createArrayOf("varchar", keep.toArray()));
+            return ps;
+        });
+    }
+
+    public int applyDailyResourceUsage(LocalDate date) {
+        return jdbcTemplate.update(DAILY_RESOURCE_USAGE_SQL,
+                date.atStartOfDay(), date.plusDays(1).atStartOfDay(), date);
+    }
+
+    public void upsertMonthly(List<? extends MonthlyReport> reports) {
+        if (reports.isEmpty()) return;
+        jdbcTemplate.batchUpdate(MONTHLY_UPSERT_SQL, reports, batchSize, (ps, r) -> {
+            ps.setString(1, r.getContainerName());
+            ps.setInt(2, r.getReportMonth());
+            ps.setInt(3, r.getReportYear());
+            ps.setDouble(4, r.getAverageUptimePercentage());
+            ps.setInt(5, r.getTotalIncidents());
+            ps.setInt(6, r.getDaysWithIncidents());
+            ps.setInt(7, r.getTotalDaysReported());
+            ps.setObject(8, r.getAverageCpuPercentage(), Types.DOUBLE);
+            ps.setObject(9, r.getPeakCpuPercentage(), Types.DOUBLE);
+            ps.setObject(10, r.getAverageMemoryBytes(), Types.BIGINT);
+            ps.setObject(11, r.getPeakMemoryBytes(), Types.BIGINT);
+            ps.setObject(12, r.getGeneratedAt());
+        });
+    }
+}
@@ -0,0 +1,11 @@
+package com.ellipsis.homelabmonitor.repository;
+
+// One time bucket of a container's history, aggregated in SQL. bucket is the bucket's
+// start in epoch seconds divided by the bucket size. Snapshot rows count polls, state
+// intervals count milliseconds.
+public interface SeriesBucket {
+    Long getBucket();
+    Long getObserved();
+    Long getRunning();
+    Long getStateChanges();
+}
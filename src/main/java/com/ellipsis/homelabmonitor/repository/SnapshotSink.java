@@ -0,0 +1,16 @@
+package com.ellipsis.homelabmonitor.repository;
+
+import com.ellipsis.homelabmonitor.event.ContainerEvent;
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+
+import java.util.List;
+
+// Where polled snapshot rows end up, picked by monitor.storage.mode. Events go to the
+// outbox in the same transaction as the rows.
+public interface SnapshotSink {
+    int write(List<ContainerInfo> containers, List<ContainerEvent> events);
+
+    default int write(List<ContainerInfo> containers) {
+        return write(containers, List.of());
+    }
+}
@@ -0,0 +1,56 @@
+package com.ellipsis.homelabmonitor.service;
+
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import com.ellipsis.homelabmonitor.model.DailyReport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Per-container gauges for scraping: current state code (see ContainerState) and today's
+// uptime so far. Rows are rebuilt from the in-memory snapshot and counters once per poll
+// interval, so removed containers drop out instead of reporting their last value forever.
+@Component
+public class ContainerGauges {
+
+    private final ContainerSnapshotCache snapshotCache;
+    private final LiveUptimeTracker uptimeTracker;
+    private final MultiGauge state;
+    private final MultiGauge uptimeToday;
+
+    public ContainerGauges(ContainerSnapshotCache snapshotCache,
+                           LiveUptimeTracker uptimeTracker,
+                           MeterRegistry meterRegistry) {
+        this.snapshotCache = snapshotCache;
+        this.uptimeTracker = uptimeTracker;
+        this.state = MultiGauge.builder("monitor.container.state")
+                .description("Container state code: 0 unknown, 1 running, 2 exited, 3 paused")
+                .register(meterRegistry);
+        this.uptimeToday = MultiGauge.builder("monitor.container.uptime.today")
+                .description("Share of today's checks the container was running, in percent")
+                .baseUnit("percent")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${monitor.poll-interval-ms:60000}")
+    public void refresh() {
+        ContainerSnapshot snapshot = snapshotCache.current();
+        if (snapshot != null) {
+            List<MultiGauge.Row<?>> rows = new ArrayList<>(snapshot.containers().size());
+            for (ContainerInfo c : snapshot.containers()) {
+                rows.add(MultiGauge.Row.of(Tags.of("host", c.getHost(), "name", c.getName()), c.getState().code()));
+            }
+            state.register(rows, true);
+        }
+
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        for (DailyReport report : uptimeTracker.today()) {
+            rows.add(MultiGauge.Row.of(Tags.of("name", report.getContainerName()), report.getUptimePercentage()));
+        }
+        uptimeToday.register(rows, true);
+    }
+}
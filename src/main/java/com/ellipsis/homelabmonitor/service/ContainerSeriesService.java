@@ -0,0 +1,114 @@
+package com.ellipsis.homelabmonitor.service;
+
+import com.ellipsis.homelabmonitor.repository.ContainerRepository;
+import com.ellipsis.homelabmonitor.repository.ContainerStateIntervalRepository;
+import com.ellipsis.homelabmonitor.repository.SeriesBucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+// Bucketed uptime series for charts. Buckets are aggregated in SQL, so the response size
+// depends on range / bucket and not on how many polls fall inside the range.
+@Service
+public class ContainerSeriesService {
+
+    private final ContainerRepository containerRepository;
+    private final ContainerStateIntervalRepository intervalRepository;
+    private final boolean changeLogMode;
+    private final long pollIntervalMs;
+    private final int maxBuckets;
+
+    public ContainerSeriesService(ContainerRepository containerRepository,
+                                  ContainerStateIntervalRepository intervalRepository,
+                                  @Value("${monitor.storage.mode:snapshot}") String storageMode,
+                                  @Value("${monitor.poll-interval-ms:60000}") long pollIntervalMs,
+                                  @Value("${monitor.series.max-buckets:2000}") int maxBuckets) {
+        this.containerRepository = containerRepository;
+        this.intervalRepository = intervalRepository;
+        this.changeLogMode = "changelog".equalsIgnoreCase(storageMode);
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxBuckets = maxBuckets;
+    }
+
+    // maxPoints, when set, caps the result with LTTB on the uptime ratio
+    public List<SeriesPoint> getSeries(String host, String name, LocalDateTime start, LocalDateTime end,
+                                       Duration bucket, Integer maxPoints) {
+        // Too fine a bucket for the range is widened rather than returning an unbounded result
+        long bucketSeconds = Math.max(1, bucket.toSeconds());
+        long rangeSeconds = Math.max(1, Duration.between(start, end).toSeconds());
+        bucketSeconds = Math.max(bucketSeconds, (rangeSeconds + maxBuckets - 1) / maxBuckets);
+
+        List<SeriesBucket> buckets = changeLogMode
+                ? intervalRepository.findSeries(name, host, start, end, bucketSeconds)
+                : containerRepository.findSeries(name, host, start, end, bucketSeconds);
+
+        List<SeriesPoint> points = new ArrayList<>(buckets.size());
+        for (SeriesBucket b : buckets) {
+            long observed = b.getObserved() == null ? 0 : b.getObserved();
+            long running = b.getRunning() == null ? 0 : b.getRunning();
+            points.add(new SeriesPoint(
+                    LocalDateTime.ofEpochSecond(b.getBucket() * bucketSeconds, 0, ZoneOffset.UTC),
+                    observed > 0 ? (double) running / observed : 0,
+                    changeLogMode ? observed / pollIntervalMs : observed,
+                    b.getStateChanges()));
+        }
+
+        if (maxPoints == null || points.size() <= maxPoints) return points;
+        return downsample(points, maxPoints);
+    }
+
+    // Dropped points hand their samples and state changes on to the next kept point,
+    // so totals over the series stay the same
+    private static List<SeriesPoint> downsample(List<SeriesPoint> points, int maxPoints) {
+        List<SeriesPoint> kept = Lttb.downsample(points,
+                maxPoints,
+                p -> p.start().toEpochSecond(ZoneOffset.UTC),
+                SeriesPoint::uptimeRatio);
+
+        List<SeriesPoint> result = new ArrayList<>(kept.size());
+        long samples = 0;
+        long changes = 0;
+        int next = 0;
+        for (SeriesPoint p : points) {
+            samples += p.samples();
+            changes += p.stateChanges();
+            if (next < kept.size() && p == kept.get(next)) {
+                result.add(new SeriesPoint(p.start(), p.uptimeRatio(), samples, changes));
+                samples = 0;
+                changes = 0;
+                next++;
+            }
+        }
+        return result;
+    }
+
+    // "30s", "5m", "1h", "1d"
+    public static Duration parseBucket(String value) {
+        if (value == null || value.length() < 2) throw new IllegalArgumentException("Invalid bucket: " + value);
+        long amount;
+        try {
+            amount = Long.parseLong(value.substring(0, value.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid bucket: " + value);
+        }
+        if (amount <= 0) throw new IllegalArgumentException("Invalid bucket: " + value);
+
+        try {
+            return switch (value.charAt(value.length() - 1)) {
+                case 's' -> Duration.ofSeconds(amount);
+                case 'm' -> Duration.ofMinutes(amount);
+                case 'h' -> Duration.ofHours(amount);
+                case 'd' -> Duration.ofDays(amount);
+                default -> throw new IllegalArgumentException("Invalid bucket: " + value);
+            };
+        } catch (ArithmeticException e) {
+            // Too many days or hours for a Duration
+            throw new IllegalArgumentException("Invalid bucket: " + value);
+        }
+    }
+}
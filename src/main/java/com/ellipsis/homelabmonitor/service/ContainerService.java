@@ -1,138 +1,351 @@
 package com.ellipsis.homelabmonitor.service;
 
+import com.ellipsis.homelabmonitor.docker.DockerEndpoint;
+import com.ellipsis.homelabmonitor.docker.DockerEndpoints;
 import com.ellipsis.homelabmonitor.event.ContainerEvent;
 import com.ellipsis.homelabmonitor.kafka.ContainerEventProducer;
+import com.ellipsis.homelabmonitor.model.ContainerHistoryRow;
 import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import com.ellipsis.homelabmonitor.model.ContainerState;
+import com.ellipsis.homelabmonitor.model.ContainerStateInterval;
 import com.ellipsis.homelabmonitor.repository.ContainerRepository;
+import com.ellipsis.homelabmonitor.repository.ContainerStateIntervalRepository;
 import com.github.dockerjava.api.DockerClient;
-import com.github.dockerjava.core.DefaultDockerClientConfig;
-import com.github.dockerjava.core.DockerClientImpl;
-import jakarta.annotation.PostConstruct;
+import com.github.dockerjava.api.model.Container;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import com.github.dockerjava.zerodep.ZerodepDockerHttpClient;
-import com.github.dockerjava.transport.DockerHttpClient;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class ContainerService {
-    private DockerClient dockerClient;
+    private final DockerEndpoints endpoints;
 
     private final ContainerRepository containerRepository;
+    private final ContainerStateIntervalRepository intervalRepository;
+    private final SnapshotWriteBuffer writeBuffer;
+    private final LiveUptimeTracker uptimeTracker;
+    private final RecentMetricsBuffer recentMetrics;
     private final ContainerEventProducer eventProducer;
+    private final ContainerSnapshotCache snapshotCache;
+    private final MeterRegistry meterRegistry;
+    private final Timer pollTimer;
+    private final DistributionSummary containersPerPoll;
+    private final Object refreshLock = new Object();
+    private final Duration reconcileInterval;
+    private final boolean changeLogMode;
 
-    // Tracks last known status of each container in memory
-    private final Map<String, String> lastKnownStatus = new HashMap<>();
+    // Last known state of each container in memory, keyed by host and container ID
+    private final ContainerStateStore states = new ContainerStateStore();
 
-    public ContainerService(ContainerRepository containerRepository,
-                            ContainerEventProducer eventProducer) {
+    // Hosts whose Docker event stream is up, polls skip the full list call for them
+    private final Set<String> liveHosts = ConcurrentHashMap.newKeySet();
+    private final Map<String, Instant> lastReconciledAt = new ConcurrentHashMap<>();
+    // Last successful list call per host, a host without one for max-staleness drops out
+    private final Map<String, Instant> lastListedAt = new ConcurrentHashMap<>();
+
+    public ContainerService(DockerEndpoints endpoints,
+                            ContainerRepository containerRepository,
+                            ContainerStateIntervalRepository intervalRepository,
+                            SnapshotWriteBuffer writeBuffer,
+                            LiveUptimeTracker uptimeTracker,
+                            RecentMetricsBuffer recentMetrics,
+                            ContainerEventProducer eventProducer,
+                            ContainerSnapshotCache snapshotCache,
+                            MeterRegistry meterRegistry,
+                            @Value("${monitor.events.reconcile-interval-ms:300000}") long reconcileIntervalMs,
+                            @Value("${monitor.storage.mode:snapshot}") String storageMode) {
+        this.endpoints = endpoints;
         this.containerRepository = containerRepository;
+        this.intervalRepository = intervalRepository;
+        this.writeBuffer = writeBuffer;
+        this.uptimeTracker = uptimeTracker;
+        this.recentMetrics = recentMetrics;
         this.eventProducer = eventProducer;
+        this.snapshotCache = snapshotCache;
+        this.meterRegistry = meterRegistry;
+        this.pollTimer = Timer.builder("monitor.poll")
+                .description("Time to list, merge and copy out one poll's containers")
+                .register(meterRegistry);
+        this.containersPerPoll = DistributionSummary.builder("monitor.poll.containers")
+                .description("Containers returned per poll")
+                .register(meterRegistry);
+        this.reconcileInterval = Duration.ofMillis(reconcileIntervalMs);
+        this.changeLogMode = "changelog".equalsIgnoreCase(storageMode);
+    }
+
+    public List<ContainerInfo> fetchAndSave() {
+        List<ContainerInfo> containers = poll();
+        // Persisted asynchronously so a slow or down database never blocks polling
+        writeBuffer.enqueue(containers);
+        uptimeTracker.record(containers);
+        recentMetrics.recordStates(containers);
+        return containers;
+    }
+
+    // Lists hosts without a live event stream (or due for reconciliation) in parallel,
+    // the rest come from the event-maintained snapshot. Unreachable hosts are left out.
+    public List<ContainerInfo> poll() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            List<ContainerInfo> containers = listAndMerge();
+            containersPerPoll.record(containers.size());
+            return containers;
+        } finally {
+            sample.stop(pollTimer);
+        }
+    }
+
+    private List<ContainerInfo> listAndMerge() {
+        Instant now = Instant.now();
+        LocalDateTime listedAt = LocalDateTime.now();
+        List<DockerEndpoint> toList = endpoints.all().stream()
+                .filter(e -> !liveHosts.contains(e.getName()) || reconcileDue(e.getName(), now))
+                .collect(Collectors.toList());
+
+        Map<String, List<ContainerInfo>> listed = collect(toList);
+        ContainerSnapshot snapshot = merge(listed, listedAt);
+        listed.forEach((host, containers) -> detectStatusChanges(host, containers, listedAt));
+        listed.keySet().forEach(host -> lastReconciledAt.put(host, now));
+        if (snapshot == null) return List.of();
+
+        LocalDateTime checkedAt = LocalDateTime.now();
+        return snapshot.containers().stream()
+                .filter(c -> listed.containsKey(c.getHost()) || liveHosts.contains(c.getHost()))
+                .map(c -> copy(c, checkedAt))
+                .collect(Collectors.toList());
+    }
+
+    // Full list of one host, corrects anything its event stream missed
+    public List<ContainerInfo> reconcile(String host) {
+        DockerEndpoint endpoint = endpoints.get(host)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown Docker host: " + host));
+
+        LocalDateTime listedAt = LocalDateTime.now();
+        Map<String, List<ContainerInfo>> listed = collect(List.of(endpoint));
+        merge(listed, listedAt);
+        listed.forEach((h, containers) -> detectStatusChanges(h, containers, listedAt));
+        if (listed.containsKey(host)) lastReconciledAt.put(host, Instant.now());
+        return listed.getOrDefault(host, List.of());
+    }
+
+    private boolean reconcileDue(String host, Instant now) {
+        Instant last = lastReconciledAt.getOrDefault(host, Instant.EPOCH);
+        return Duration.between(last, now).compareTo(reconcileInterval) >= 0;
+    }
+
+    // Each endpoint answers on its own collector with its own timeout, failures are dropped per host
+    private Map<String, List<ContainerInfo>> collect(List<DockerEndpoint> targets) {
+        Map<String, CompletableFuture<List<ContainerInfo>>> futures = new LinkedHashMap<>();
+        for (DockerEndpoint endpoint : targets) {
+            Timer listTimer = Timer.builder("monitor.docker.list")
+                    .description("Latency of the Docker list containers call")
+                    .tag("host", endpoint.getName())
+                    .register(meterRegistry);
+            futures.put(endpoint.getName(), endpoint.call(client ->
+                    listTimer.record(() -> listContainers(endpoint.getName(), client))));
+        }
+
+        Map<String, List<ContainerInfo>> results = new LinkedHashMap<>();
+        futures.forEach((host, future) -> {
+            try {
+                results.put(host, future.join());
+                lastListedAt.put(host, Instant.now());
+            } catch (Exception e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                meterRegistry.counter("monitor.docker.list.failures", "host", host).increment();
+                log.warn("Docker host {} unavailable: {}", host, cause);
+            }
+        });
+        return results;
+    }
+
+    // Replaces the entries of the listed hosts, others keep their last known state until the
+    // host has gone unlisted for max-staleness without a live event stream. Containers
+    // destroyed while the listing was in flight stay out. Returns null while no host has
+    // answered yet, rather than publishing an empty snapshot that looks fresh.
+    private ContainerSnapshot merge(Map<String, List<ContainerInfo>> listed, LocalDateTime listedAt) {
+        if (listed.isEmpty() && snapshotCache.current() == null) return null;
+        return snapshotCache.update(containers -> {
+            List<ContainerInfo> next = new ArrayList<>();
+            for (ContainerInfo c : containers) {
+                if (!listed.containsKey(c.getHost()) && isCurrent(c.getHost())) next.add(c);
+            }
+            listed.values().forEach(list -> list.stream()
+                    .filter(c -> !states.removedAfter(c.getHost(), c.getId(), listedAt))
+                    .forEach(next::add));
+            return next;
+        });
+    }
+
+    private boolean isCurrent(String host) {
+        return liveHosts.contains(host) || snapshotCache.isWithinStaleness(lastListedAt.get(host));
     }
 
-    @PostConstruct
-    public void init() {
-        String host = System.getenv("DOCKER_HOST");
-        if (host == null || host.isEmpty()) host = "tcp://localhost:2375";
+    public void applyDockerEvent(String host, String containerId, String name, String image, String status) {
+        String shortId = shortId(containerId);
+
+        ContainerSnapshot snapshot = snapshotCache.update(containers -> {
+            List<ContainerInfo> next = new ArrayList<>(containers.size() + 1);
+            boolean found = false;
+            for (ContainerInfo c : containers) {
+                if (host.equals(c.getHost()) && c.getId().equals(shortId)) {
+                    next.add(withStatus(c, name, image, status));
+                    found = true;
+                } else {
+                    next.add(c);
+                }
+            }
+            if (!found && name != null) {
+                next.add(withStatus(ContainerInfo.builder().host(host).id(shortId).build(), name, image, status));
+            }
+            return next;
+        });
 
-        System.out.println("Connecting to Docker at: " + host);
+        snapshot.containers().stream()
+                .filter(c -> host.equals(c.getHost()) && c.getId().equals(shortId))
+                .findFirst()
+                .ifPresent(this::detectStatusChange);
+    }
 
-        DefaultDockerClientConfig config = DefaultDockerClientConfig
-                .createDefaultConfigBuilder()
-                .withDockerHost(host)
+    public void removeContainer(String host, String containerId) {
+        String shortId = shortId(containerId);
+        states.remove(host, shortId, LocalDateTime.now());
+
+        snapshotCache.update(containers -> containers.stream()
+                .filter(c -> !(host.equals(c.getHost()) && c.getId().equals(shortId)))
+                .collect(Collectors.toList()));
+    }
+
+    private static ContainerInfo withStatus(ContainerInfo existing, String name, String image, String status) {
+        return ContainerInfo.builder()
+                .host(existing.getHost())
+                .id(existing.getId())
+                .name(name != null ? name : existing.getName())
+                .image(existing.getImage() != null ? existing.getImage() : image)
+                .status(status)
+                .state(ContainerState.parse(status))
+                .checkedAt(LocalDateTime.now())
                 .build();
+    }
 
-        DockerHttpClient httpClient = new ZerodepDockerHttpClient.Builder()
-                .dockerHost(config.getDockerHost())
+    private static ContainerInfo copy(ContainerInfo c, LocalDateTime checkedAt) {
+        return ContainerInfo.builder()
+                .host(c.getHost())
+                .id(c.getId())
+                .name(c.getName())
+                .status(c.getStatus())
+                .state(c.getState())
+                .image(c.getImage())
+                .checkedAt(checkedAt)
                 .build();
+    }
 
-        this.dockerClient = DockerClientImpl.getInstance(config, httpClient);
+    private static String shortId(String containerId) {
+        return containerId.substring(0, Math.min(12, containerId.length()));
     }
 
-    public List<ContainerInfo> fetchAndSave() {
-        List<ContainerInfo> containers = dockerClient.listContainersCmd()
-                .withShowAll(true)
-                .exec()
-                .stream()
-                .map(container -> ContainerInfo.builder()
-                        .id(container.getId().substring(0, 12))
-                        .name(container.getNames()[0].replaceFirst("^/", ""))
-                        .status(container.getStatus())
-                        .image(container.getImage())
-                        .checkedAt(LocalDateTime.now())
-                        .build())
-                .collect(Collectors.toList());
+    public boolean isEventStreamLive(String host) {
+        return liveHosts.contains(host);
+    }
 
-        containerRepository.saveAll(containers);
-        detectStatusChanges(containers);
-        return containers;
+    public void setEventStreamLive(String host, boolean live) {
+        if (live) liveHosts.add(host);
+        else liveHosts.remove(host);
     }
 
     public List<ContainerInfo> getCurrentContainers() {
-        return dockerClient.listContainersCmd()
+        ContainerSnapshot snapshot = getCurrentSnapshot();
+        return snapshot == null ? List.of() : snapshot.containers();
+    }
+
+    // Served from the poll snapshot, only falls back to Docker when it is too stale. Null
+    // when no host has answered since startup.
+    public ContainerSnapshot getCurrentSnapshot() {
+        ContainerSnapshot snapshot = snapshotCache.current();
+        if (snapshotCache.isFresh(snapshot)) return snapshot;
+
+        synchronized (refreshLock) {
+            snapshot = snapshotCache.current();
+            if (snapshotCache.isFresh(snapshot)) return snapshot;
+
+            LocalDateTime listedAt = LocalDateTime.now();
+            Map<String, List<ContainerInfo>> listed = collect(endpoints.all());
+            if (listed.isEmpty() && snapshot != null) {
+                log.warn("Docker unavailable, serving stale snapshot v{}", snapshot.version());
+                return snapshot;
+            }
+            return merge(listed, listedAt);
+        }
+    }
+
+    private static List<ContainerInfo> listContainers(String host, DockerClient client) {
+        return client.listContainersCmd()
                 .withShowAll(true)
                 .exec()
                 .stream()
                 .map(container -> ContainerInfo.builder()
+                        .host(host)
                         .id(container.getId().substring(0, 12))
                         .name(container.getNames()[0].replaceFirst("^/", ""))
                         .status(container.getStatus())
+                        .state(ContainerState.parse(container.getStatus()))
                         .image(container.getImage())
                         .checkedAt(LocalDateTime.now())
                         .build())
                 .collect(Collectors.toList());
     }
 
-    private void detectStatusChanges(List<ContainerInfo> containers) {
+    // A full listing of one host, containers it no longer shows are forgotten. Observed as of
+    // listedAt, so a container destroyed while the listing was in flight isn't brought back.
+    private void detectStatusChanges(String host, List<ContainerInfo> containers, LocalDateTime listedAt) {
         for (ContainerInfo container : containers) {
-            String name = container.getName();
-            String currentStatus = normalizeStatus(container.getStatus());
-            String previousStatus = lastKnownStatus.get(name);
+            detectStatusChange(container, states.observe(container, listedAt));
+        }
+        states.retainListed(host, containers, listedAt);
+    }
 
-            if (previousStatus == null) {
-                lastKnownStatus.put(name, currentStatus);
-                continue;
-            }
+    private void detectStatusChange(ContainerInfo container) {
+        detectStatusChange(container, states.observe(container));
+    }
 
-            if (!currentStatus.equals(previousStatus)) {
-                boolean meaningfulChange =
-                        (previousStatus.equals("running") && currentStatus.equals("exited")) ||
-                                (previousStatus.equals("exited") && currentStatus.equals("running"));
-
-                if (meaningfulChange) {
-                    String eventType = currentStatus.equals("running")
-                            ? "CONTAINER_UP" : "CONTAINER_DOWN";
-
-                    ContainerEvent event = ContainerEvent.builder()
-                            .containerId(container.getId())
-                            .containerName(name)
-                            .previousStatus(previousStatus)
-                            .currentStatus(currentStatus)
-                            .occurredAt(LocalDateTime.now())
-                            .eventType(eventType)
-                            .build();
-
-                    eventProducer.publishEvent(event);
-                }
-            }
+    // Called from the poll, collector and event stream threads without a lock, the state
+    // store hands each transition to exactly one of them
+    private void detectStatusChange(ContainerInfo container, ContainerStateStore.Transition transition) {
+        if (transition == null || !transition.isUpOrDown()) return;
 
-            lastKnownStatus.put(name, currentStatus);
-        }
-    }
+        String eventType = transition.current() == ContainerState.RUNNING
+                ? "CONTAINER_UP" : "CONTAINER_DOWN";
+
+        ContainerEvent event = ContainerEvent.builder()
+                .host(container.getHost())
+                .containerId(container.getId())
+                .containerName(container.getName())
+                .previousStatus(transition.previous())
+                .currentStatus(transition.current())
+                .occurredAt(LocalDateTime.now())
+                .eventType(eventType)
+                .build();
 
-    private String normalizeStatus(String rawStatus) {
-        if (rawStatus == null) return "unknown";
-        String lower = rawStatus.toLowerCase();
-        if (lower.startsWith("up")) return "running";
-        if (lower.startsWith("restarting")) return "running";
-        if (lower.startsWith("exited")) return "exited";
-        if (lower.startsWith("paused")) return "paused";
-        return "unknown";
+        eventProducer.publishEvent(event);
+        meterRegistry.counter("monitor.events.detected", "type", eventType).increment();
     }
 
     @Scheduled(fixedRateString = "${monitor.poll-interval-ms:60000}")
@@ -140,79 +353,119 @@ public class ContainerService {
         try {
             fetchAndSave();
         } catch (Exception e) {
-            System.out.println("Poll failed - database may be unavailable: " + e.getMessage());
+            log.warn("Poll failed: {}", e.getMessage());
         }
     }
 
-    public List<ContainerInfo> getHistory(int hours) {
+    public List<ContainerHistoryRow> getHistory(String host, int hours) {
         LocalDateTime since = LocalDateTime.now().minusHours(hours);
+        if (changeLogMode) return toHistory(getIntervals(host, null, hours), since);
+        if (host != null) return containerRepository.findByHostAndCheckedAtAfter(host, since);
         return containerRepository.findByCheckedAtAfter(since);
     }
 
-    public List<ContainerInfo> getHistoryByName(String name, int hours) {
+    public List<ContainerHistoryRow> getHistoryByName(String host, String name, int hours) {
         LocalDateTime since = LocalDateTime.now().minusHours(hours);
+        if (changeLogMode) return toHistory(getIntervals(host, name, hours), since);
+        if (host != null) return containerRepository.findByHostAndNameAndCheckedAtAfter(host, name, since);
         return containerRepository.findByNameAndCheckedAtAfter(name, since);
     }
 
-    public void restartContainer(String name) {
+    public List<ContainerStateInterval> getIntervals(String host, String name, int hours) {
+        LocalDateTime since = LocalDateTime.now().minusHours(hours);
+        if (host != null && name != null) {
+            return intervalRepository.findByHostAndContainerNameAndValidToGreaterThanEqualOrderByValidFromAsc(host, name, since);
+        }
+        if (host != null) return intervalRepository.findByHostAndValidToGreaterThanEqualOrderByValidFromAsc(host, since);
+        if (name != null) return intervalRepository.findByContainerNameAndValidToGreaterThanEqualOrderByValidFromAsc(name, since);
+        return intervalRepository.findByValidToGreaterThanEqualOrderByValidFromAsc(since);
+    }
+
+    // In change-log mode history is one row per state change, stamped with when it began
+    private static List<ContainerHistoryRow> toHistory(List<ContainerStateInterval> intervals, LocalDateTime since) {
+        return intervals.stream()
+                .map(i -> new ContainerHistoryRow(null, i.getHost(), i.getContainerId(), i.getContainerName(),
+                        i.getStatus(), i.getImage(), i.getValidFrom().isBefore(since) ? since : i.getValidFrom(),
+                        null))
+                .collect(Collectors.toList());
+    }
+
+    public void restartContainer(String host, String name) {
         try {
-            dockerClient.listContainersCmd()
-                    .withShowAll(true)
-                    .exec()
-                    .stream()
-                    .filter(c -> c.getNames()[0].replaceFirst("^/", "").equals(name))
-                    .findFirst()
-                    .ifPresentOrElse(
-                            container -> {
-                                dockerClient.restartContainerCmd(container.getId()).exec();
-                                System.out.println("Restarted container: " + name);
-
-                                ContainerEvent event = ContainerEvent.builder()
-                                        .containerId(container.getId().substring(0, 12))
-                                        .containerName(name)
-                                        .previousStatus("running")
-                                        .currentStatus("running")
-                                        .occurredAt(LocalDateTime.now())
-                                        .eventType("CONTAINER_RESTARTED")
-                                        .build();
-
-                                eventProducer.publishEvent(event);
-                            },
-                            () -> System.out.println("Container not found: " + name)
-                    );
+            findContainer(host, name).ifPresentOrElse(
+                    found -> {
+                        found.endpoint().act(client -> client.restartContainerCmd(found.container().getId()).exec()).join();
+                        log.info("Restarted container: {} on {}", name, found.endpoint().getName());
+
+                        ContainerEvent event = ContainerEvent.builder()
+                                .host(found.endpoint().getName())
+                                .containerId(found.container().getId().substring(0, 12))
+                                .containerName(name)
+                                .previousStatus(ContainerState.RUNNING)
+                                .currentStatus(ContainerState.RUNNING)
+                                .occurredAt(LocalDateTime.now())
+                                .eventType("CONTAINER_RESTARTED")
+                                .build();
+
+                        eventProducer.publishEvent(event);
+                    },
+                    () -> log.warn("Container not found: {}", name)
+            );
         } catch (Exception e) {
-            System.out.println("Failed to restart container: " + name + " - " + e.getMessage());
+            log.warn("Failed to restart container: {} - {}", name, e.getMessage());
         }
     }
 
-    public void stopContainer(String name) {
+    public void stopContainer(String host, String name) {
         try {
-            dockerClient.listContainersCmd()
-                    .withShowAll(true)
-                    .exec()
-                    .stream()
-                    .filter(c -> c.getNames()[0].replaceFirst("^/", "").equals(name))
-                    .findFirst()
-                    .ifPresentOrElse(
-                            container -> {
-                                dockerClient.stopContainerCmd(container.getId()).exec();
-                                System.out.println("Stopped container: " + name);
-
-                                ContainerEvent event = ContainerEvent.builder()
-                                        .containerId(container.getId().substring(0, 12))
-                                        .containerName(name)
-                                        .previousStatus("running")
-                                        .currentStatus("exited")
-                                        .occurredAt(LocalDateTime.now())
-                                        .eventType("CONTAINER_STOPPED")
-                                        .build();
-
-                                eventProducer.publishEvent(event);
-                            },
-                            () -> System.out.println("Container not found: " + name)
-                    );
+            findContainer(host, name).ifPresentOrElse(
+                    found -> {
+                        found.endpoint().act(client -> client.stopContainerCmd(found.container().getId()).exec()).join();
+                        log.info("Stopped container: {} on {}", name, found.endpoint().getName());
+
+                        ContainerEvent event = ContainerEvent.builder()
+                                .host(found.endpoint().getName())
+                                .containerId(found.container().getId().substring(0, 12))
+                                .containerName(name)
+                                .previousStatus(ContainerState.RUNNING)
+                                .currentStatus(ContainerState.EXITED)
+                                .occurredAt(LocalDateTime.now())
+                                .eventType("CONTAINER_STOPPED")
+                                .build();
+
+                        eventProducer.publishEvent(event);
+                    },
+                    () -> log.warn("Container not found: {}", name)
+            );
         } catch (Exception e) {
-            System.out.println("Failed to stop container: " + name + " — " + e.getMessage());
+            log.warn("Failed to stop container: {} - {}", name, e.getMessage());
+        }
+    }
+
+    private record FoundContainer(DockerEndpoint endpoint, Container container) { }
+
+    // Searches the given host, or every host in configuration order when none is given
+    private Optional<FoundContainer> findContainer(String host, String name) {
+        List<DockerEndpoint> targets = host != null
+                ? endpoints.get(host).map(List::of).orElse(List.of())
+                : endpoints.all();
+
+        for (DockerEndpoint endpoint : targets) {
+            Optional<Container> container;
+            try {
+                container = endpoint.call(client -> client.listContainersCmd()
+                                .withShowAll(true)
+                                .exec()
+                                .stream()
+                                .filter(c -> c.getNames()[0].replaceFirst("^/", "").equals(name))
+                                .findFirst())
+                        .join();
+            } catch (Exception e) {
+                log.warn("Docker host {} unavailable: {}", endpoint.getName(), e.getMessage());
+                continue;
+            }
+            if (container.isPresent()) return Optional.of(new FoundContainer(endpoint, container.get()));
         }
+        return Optional.empty();
     }
-}
\ No newline at end of file
+}
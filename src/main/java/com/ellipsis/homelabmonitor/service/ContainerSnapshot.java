@@ -0,0 +1,19 @@
+package com.ellipsis.homelabmonitor.service;
+
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// Immutable view of the latest container list. A new version is only minted
+// when the content changes, so the etag stays stable across identical polls.
+public record ContainerSnapshot(long version,
+                                String etag,
+                                Instant capturedAt,
+                                List<ContainerInfo> containers) {
+
+    public Duration age() {
+        return Duration.between(capturedAt, Instant.now());
+    }
+}
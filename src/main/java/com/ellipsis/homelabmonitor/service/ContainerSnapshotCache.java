@@ -0,0 +1,73 @@
+package com.ellipsis.homelabmonitor.service;
+
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+@Component
+public class ContainerSnapshotCache {
+
+    private final AtomicReference<ContainerSnapshot> current = new AtomicReference<>();
+    private final Duration maxStaleness;
+
+    public ContainerSnapshotCache(@Value("${monitor.snapshot.max-staleness-ms:60000}") long maxStalenessMs) {
+        this.maxStaleness = Duration.ofMillis(maxStalenessMs);
+    }
+
+    // Lock-free read, may be null before the first poll
+    public ContainerSnapshot current() {
+        return current.get();
+    }
+
+    public boolean isFresh(ContainerSnapshot snapshot) {
+        return snapshot != null && isWithinStaleness(snapshot.capturedAt());
+    }
+
+    public boolean isWithinStaleness(Instant capturedAt) {
+        return capturedAt != null && Duration.between(capturedAt, Instant.now()).compareTo(maxStaleness) <= 0;
+    }
+
+    public ContainerSnapshot publish(List<ContainerInfo> containers) {
+        List<ContainerInfo> copy = List.copyOf(containers);
+        return current.updateAndGet(previous -> next(previous, copy));
+    }
+
+    // Applies an incremental change on top of the current list, retried on contention
+    public ContainerSnapshot update(UnaryOperator<List<ContainerInfo>> change) {
+        return current.updateAndGet(previous -> next(previous,
+                List.copyOf(change.apply(previous == null ? List.of() : previous.containers()))));
+    }
+
+    private static ContainerSnapshot next(ContainerSnapshot previous, List<ContainerInfo> containers) {
+        String etag = etagOf(containers);
+        Instant now = Instant.now();
+        if (previous != null && previous.etag().equals(etag)) {
+            // Same content: keep the previous list so the body behind an etag never changes
+            // (checkedAt included), only the snapshot timestamp is refreshed
+            return new ContainerSnapshot(previous.version(), etag, now, previous.containers());
+        }
+        long version = previous == null ? 1 : previous.version() + 1;
+        return new ContainerSnapshot(version, etag, now, containers);
+    }
+
+    // checkedAt and dbID change on every poll, so they are left out of the hash. That is safe
+    // because an unchanged hash keeps serving the list it was computed from, see next()
+    private static String etagOf(List<ContainerInfo> containers) {
+        long hash = 1125899906842597L;
+        for (ContainerInfo c : containers) {
+            hash = 31 * hash + Objects.hashCode(c.getHost());
+            hash = 31 * hash + Objects.hashCode(c.getId());
+            hash = 31 * hash + Objects.hashCode(c.getName());
+            hash = 31 * hash + Objects.hashCode(c.getStatus());
+            hash = 31 * hash + Objects.hashCode(c.getImage());
+        }
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+}
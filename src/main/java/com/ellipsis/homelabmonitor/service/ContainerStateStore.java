@@ -0,0 +1,91 @@
+package com.ellipsis.homelabmonitor.service;
+
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import com.ellipsis.homelabmonitor.model.ContainerState;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Last observed state per host and container ID, shared by the poll, reconcile and Docker
+// event threads. Each observation is applied with compare-and-set, so when several threads
+// see the same change exactly one of them gets the transition back, and an observation older
+// than the stored one is ignored instead of flipping the state back. Keyed by ID so a
+// recreated container starts fresh rather than inheriting its predecessor's state. A removed
+// container leaves a tombstone with its removal time, so a listing taken before the removal
+// can't bring it back; the next full listing of the host that started later drops it.
+public class ContainerStateStore {
+
+    public record Transition(ContainerState previous, ContainerState current) {
+        // Pauses and unknown states in between are not reported as up or down
+        public boolean isUpOrDown() {
+            return (previous == ContainerState.RUNNING && current == ContainerState.EXITED)
+                    || (previous == ContainerState.EXITED && current == ContainerState.RUNNING);
+        }
+    }
+
+    private record Key(String host, String id) { }
+
+    // state is null for a tombstone
+    private record Entry(ContainerState state, LocalDateTime observedAt) {
+        boolean removed() {
+            return state == null;
+        }
+    }
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    // Returns the transition this observation caused, or null for a first sighting, an
+    // unchanged state or an observation older than the one already stored
+    public Transition observe(ContainerInfo container) {
+        return observe(container, container.getCheckedAt() != null ? container.getCheckedAt() : LocalDateTime.now());
+    }
+
+    // For listings, which show the state as of when the request was made rather than parsed
+    public Transition observe(ContainerInfo container, LocalDateTime observedAt) {
+        Key key = new Key(container.getHost(), container.getId());
+        Entry next = new Entry(container.getState(), observedAt);
+
+        while (true) {
+            Entry previous = entries.putIfAbsent(key, next);
+            if (previous == null) return null;
+            if (next.observedAt().isBefore(previous.observedAt())) return null;
+            // The removal wins a tie
+            if (previous.removed() && !next.observedAt().isAfter(previous.observedAt())) return null;
+            if (entries.replace(key, previous, next)) {
+                if (previous.removed()) return null;
+                return previous.state() == next.state() ? null : new Transition(previous.state(), next.state());
+            }
+        }
+    }
+
+    public void remove(String host, String id, LocalDateTime removedAt) {
+        entries.merge(new Key(host, id), new Entry(null, removedAt),
+                (current, tombstone) -> current.observedAt().isAfter(removedAt) ? current : tombstone);
+    }
+
+    // True if the container was removed after the given time, e.g. after a listing started
+    public boolean removedAfter(String host, String id, LocalDateTime time) {
+        Entry entry = entries.get(new Key(host, id));
+        return entry != null && entry.removed() && entry.observedAt().isAfter(time);
+    }
+
+    // Drops containers of the host that a full listing started at listedAt no longer shows,
+    // and tombstones older than it. Entries observed after the listing started (e.g. from an
+    // event) are kept.
+    public void retainListed(String host, Collection<ContainerInfo> listed, LocalDateTime listedAt) {
+        Set<String> ids = new HashSet<>(listed.size() * 2);
+        for (ContainerInfo c : listed) ids.add(c.getId());
+        // removeIf on the entry set only removes an entry that still holds the value tested
+        entries.entrySet().removeIf(e -> e.getKey().host().equals(host)
+                && !ids.contains(e.getKey().id())
+                && e.getValue().observedAt().isBefore(listedAt));
+    }
+
+    // Containers currently tracked, tombstones not included
+    public int size() {
+        return (int) entries.values().stream().filter(e -> !e.removed()).count();
+    }
+}
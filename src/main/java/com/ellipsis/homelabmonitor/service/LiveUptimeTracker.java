@@ -0,0 +1,188 @@
+package com.ellipsis.homelabmonitor.service;
+
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import com.ellipsis.homelabmonitor.model.ContainerState;
+import com.ellipsis.homelabmonitor.model.DailyReport;
+import com.ellipsis.homelabmonitor.model.LiveUptimeCheckpoint;
+import com.ellipsis.homelabmonitor.repository.LiveUptimeCheckpointStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Per-container daily counters kept up to date by every poll, so "today so far" is
+// O(containers) and the nightly report only has to seal them. Counts follow the same rules
+// as the SQL report: a poll row is running if its status starts with "Up", and an incident
+// is a running -> not running step between consecutive polls of the same host/container.
+@Slf4j
+@Component
+public class LiveUptimeTracker {
+
+    private static class Counts {
+        int total;
+        int running;
+        int incidents;
+        String lastStatus;
+    }
+
+    private final LiveUptimeCheckpointStore checkpointStore;
+
+    private final Map<LocalDate, Map<String, Counts>> days = new TreeMap<>();
+    // Previous poll per host/name for incident detection, reset every day like the SQL window
+    private final Map<String, Boolean> lastRunning = new HashMap<>();
+    // Checkpoints only know the last status per name, used until a host/name has been seen again
+    private final Map<String, Boolean> restoredRunning = new HashMap<>();
+    private LocalDate lastRunningDay;
+    // Checkpointing before the restore would overwrite the stored counts with a partial day,
+    // so a failed restore is retried on the next checkpoint instead
+    private boolean restored;
+    // Days up to here are sealed into reports, later checkpoints must not write them back
+    private LocalDate sealedThrough;
+    // Held across the store calls of seal and checkpoint so their writes can't interleave;
+    // record() only takes the monitor, so polls never wait on the database
+    private final Object storeLock = new Object();
+
+    public LiveUptimeTracker(LiveUptimeCheckpointStore checkpointStore) {
+        this.checkpointStore = checkpointStore;
+    }
+
+    // Added on top of anything polled since startup
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void restore() {
+        if (restored) return;
+        try {
+            LocalDate today = LocalDate.now();
+            // Read everything first so a failed read leaves nothing half-merged
+            List<LiveUptimeCheckpoint> checkpoints = checkpointStore.findSince(today.minusDays(1));
+            for (LiveUptimeCheckpoint c : checkpoints) {
+                Counts counts = days.computeIfAbsent(c.getReportDate(), d -> new HashMap<>())
+                        .computeIfAbsent(c.getContainerName(), n -> new Counts());
+                counts.total += c.getTotalSnapshots();
+                counts.running += c.getRunningSnapshots();
+                counts.incidents += c.getIncidentCount();
+                if (counts.lastStatus == null) counts.lastStatus = c.getLastStatus();
+                if (c.getReportDate().equals(today) && c.getLastStatus() != null) {
+                    restoredRunning.putIfAbsent(c.getContainerName(), ContainerState.parse(c.getLastStatus()).isRunning());
+                }
+            }
+            if (lastRunningDay == null) lastRunningDay = today;
+            restored = true;
+        } catch (Exception e) {
+            log.warn("Could not restore live uptime checkpoints, retrying on the next checkpoint: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void record(List<ContainerInfo> containers) {
+        for (ContainerInfo c : containers) {
+            LocalDate day = c.getCheckedAt().toLocalDate();
+            if (!day.equals(lastRunningDay)) {
+                if (lastRunningDay != null && day.isBefore(lastRunningDay)) continue;
+                lastRunning.clear();
+                restoredRunning.clear();
+                lastRunningDay = day;
+            }
+
+            boolean running = c.getState().isRunning();
+            Counts counts = days.computeIfAbsent(day, d -> new HashMap<>())
+                    .computeIfAbsent(c.getName(), n -> new Counts());
+            counts.total++;
+            if (running) counts.running++;
+            counts.lastStatus = c.getStatus();
+
+            Boolean wasRunning = lastRunning.put(c.getHost() + "/" + c.getName(), running);
+            if (wasRunning == null) wasRunning = restoredRunning.remove(c.getName());
+            if (Boolean.TRUE.equals(wasRunning) && !running) counts.incidents++;
+        }
+    }
+
+    public synchronized List<DailyReport> today() {
+        return reports(LocalDate.now());
+    }
+
+    // Writes the day's counters as its daily reports. Returns false if nothing was tracked
+    // that day (the monitor wasn't running), leaving the report to be built from raw rows.
+    // Counters that couldn't be restored lack the polls from before a restart, so they aren't
+    // sealed either.
+    public boolean seal(LocalDate day) {
+        synchronized (storeLock) {
+            List<DailyReport> reports;
+            synchronized (this) {
+                restore();
+                if (!restored) return false;
+                reports = reports(day);
+            }
+            if (reports.isEmpty()) return false;
+
+            checkpointStore.seal(day, reports);
+            synchronized (this) {
+                days.keySet().removeIf(d -> !d.isAfter(day));
+                if (sealedThrough == null || day.isAfter(sealedThrough)) sealedThrough = day;
+            }
+            return true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${monitor.live-uptime.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        synchronized (storeLock) {
+            List<LiveUptimeCheckpoint> checkpoints = new ArrayList<>();
+            LocalDateTime now = LocalDateTime.now();
+            synchronized (this) {
+                restore();
+                if (!restored) return;
+                days.forEach((day, counters) -> {
+                    if (sealedThrough != null && !day.isAfter(sealedThrough)) return;
+                    counters.forEach((name, counts) -> checkpoints.add(LiveUptimeCheckpoint.builder()
+                            .reportDate(day)
+                            .containerName(name)
+                            .totalSnapshots(counts.total)
+                            .runningSnapshots(counts.running)
+                            .incidentCount(counts.incidents)
+                            .lastStatus(counts.lastStatus)
+                            .updatedAt(now)
+                            .build()));
+                });
+            }
+
+            try {
+                checkpointStore.save(checkpoints);
+            } catch (Exception e) {
+                log.warn("Live uptime checkpoint failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        checkpoint();
+    }
+
+    private List<DailyReport> reports(LocalDate day) {
+        Map<String, Counts> counters = days.getOrDefault(day, Map.of());
+        LocalDateTime now = LocalDateTime.now();
+        List<DailyReport> reports = new ArrayList<>(counters.size());
+        counters.forEach((name, counts) -> {
+            double uptimePercent = counts.total > 0 ? (counts.running * 100.0) / counts.total : 0;
+            reports.add(DailyReport.builder()
+                    .containerName(name)
+                    .reportDate(day)
+                    .totalSnapshots(counts.total)
+                    .runningSnapshots(counts.running)
+                    .uptimePercentage(Math.round(uptimePercent * 10.0)/10.0)
+                    .incidentCount(counts.incidents)
+                    .generatedAt(now)
+                    .build());
+        });
+        return reports;
+    }
+}
@@ -0,0 +1,61 @@
+package com.ellipsis.homelabmonitor.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+// Largest-Triangle-Three-Buckets: keeps the first and last point and, from each of the
+// threshold - 2 buckets in between, the point forming the largest triangle with the point
+// kept before it and the average of the next bucket. Preserves the visual shape of a series
+// far better than taking every n-th point.
+public final class Lttb {
+
+    private Lttb() {
+    }
+
+    public static <T> List<T> downsample(List<T> points, int threshold, ToDoubleFunction<T> x, ToDoubleFunction<T> y) {
+        int size = points.size();
+        if (threshold >= size || threshold < 3) return points;
+
+        List<T> sampled = new ArrayList<>(threshold);
+        sampled.add(points.get(0));
+
+        double every = (double) (size - 2) / (threshold - 2);
+        int a = 0;
+        for (int i = 0; i < threshold - 2; i++) {
+            // Average of the next bucket
+            int nextStart = (int) Math.floor((i + 1) * every) + 1;
+            int nextEnd = Math.min((int) Math.floor((i + 2) * every) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = nextStart; j < nextEnd; j++) {
+                avgX += x.applyAsDouble(points.get(j));
+                avgY += y.applyAsDouble(points.get(j));
+            }
+            int count = nextEnd - nextStart;
+            avgX /= count;
+            avgY /= count;
+
+            // Point in this bucket with the largest triangle
+            int start = (int) Math.floor(i * every) + 1;
+            int end = (int) Math.floor((i + 1) * every) + 1;
+            double ax = x.applyAsDouble(points.get(a));
+            double ay = y.applyAsDouble(points.get(a));
+            double maxArea = -1;
+            int chosen = start;
+            for (int j = start; j < end; j++) {
+                double area = Math.abs((ax - avgX) * (y.applyAsDouble(points.get(j)) - ay)
+                        - (ax - x.applyAsDouble(points.get(j))) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = j;
+                }
+            }
+            sampled.add(points.get(chosen));
+            a = chosen;
+        }
+
+        sampled.add(points.get(size - 1));
+        return sampled;
+    }
+}
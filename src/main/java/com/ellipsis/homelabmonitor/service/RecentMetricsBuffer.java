@@ -0,0 +1,97 @@
+package com.ellipsis.homelabmonitor.service;
+
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import com.ellipsis.homelabmonitor.model.ContainerMetrics;
+import com.ellipsis.homelabmonitor.model.ContainerState;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Last window of state, CPU and memory per container for short-range charts, kept in memory
+// so they never touch PostgreSQL. Stats frames and polls both append; whichever comes first
+// in a resolution step wins. At most maxContainers rings exist, each of a fixed size.
+@Component
+public class RecentMetricsBuffer {
+
+    public record Series(String host, String name, SampleRing ring) { }
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final long resolutionMs;
+    private final long windowMs;
+    private final int maxContainers;
+    private final Counter rejected;
+
+    public RecentMetricsBuffer(MeterRegistry meterRegistry,
+                               @Value("${monitor.recent.window-ms:3600000}") long windowMs,
+                               @Value("${monitor.recent.resolution-ms:5000}") long resolutionMs,
+                               @Value("${monitor.recent.max-containers:256}") int maxContainers) {
+        this.windowMs = windowMs;
+        this.resolutionMs = resolutionMs;
+        this.capacity = (int) Math.max(1, windowMs / resolutionMs);
+        this.maxContainers = maxContainers;
+        this.rejected = meterRegistry.counter("monitor.recent.containers.rejected");
+        Gauge.builder("monitor.recent.containers", series, Map::size)
+                .description("Containers with a recent-metrics ring")
+                .register(meterRegistry);
+    }
+
+    // Stats path, about once a second per running container
+    public void record(ContainerMetrics sample) {
+        long now = System.currentTimeMillis();
+        Series s = seriesFor(sample.host(), sample.containerName(), now);
+        if (s != null) {
+            s.ring().append(now, ContainerState.RUNNING, (float) sample.cpuPercent(), sample.memoryBytes(), resolutionMs);
+        }
+    }
+
+    // Poll path, fills in containers without a stats stream (stopped, or stats turned off)
+    public void recordStates(List<ContainerInfo> containers) {
+        long now = System.currentTimeMillis();
+        for (ContainerInfo c : containers) {
+            Series s = seriesFor(c.getHost(), c.getName(), now);
+            if (s != null) s.ring().append(now, c.getState(), Float.NaN, SampleRing.NO_MEMORY, resolutionMs);
+        }
+    }
+
+    public List<Series> find(String host, String name) {
+        List<Series> found = new ArrayList<>(1);
+        for (Series s : series.values()) {
+            if (s.name().equals(name) && (host == null || host.equals(s.host()))) found.add(s);
+        }
+        return found;
+    }
+
+    public long resolutionMs() {
+        return resolutionMs;
+    }
+
+    private Series seriesFor(String host, String name, long now) {
+        String key = host + "/" + name;
+        Series s = series.get(key);
+        if (s != null) return s;
+
+        if (series.size() >= maxContainers && !evictStale(now)) {
+            rejected.increment();
+            return null;
+        }
+        return series.computeIfAbsent(key, k -> new Series(host, name, new SampleRing(capacity)));
+    }
+
+    // Frees the ring of a container that has had nothing recorded for a whole window
+    private boolean evictStale(long now) {
+        for (Map.Entry<String, Series> entry : series.entrySet()) {
+            if (now - entry.getValue().ring().lastTime() > windowMs) {
+                return series.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        return false;
+    }
+}
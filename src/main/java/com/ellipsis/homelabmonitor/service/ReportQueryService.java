@@ -0,0 +1,108 @@
+package com.ellipsis.homelabmonitor.service;
+
+import com.ellipsis.homelabmonitor.model.DailyReport;
+import com.ellipsis.homelabmonitor.model.MonthlyReport;
+import com.ellipsis.homelabmonitor.repository.DailyReportRepository;
+import com.ellipsis.homelabmonitor.repository.MonthlyReportRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Read-through cache for the report endpoints. Only closed periods are cached (days before
+// today, months before this one), and they stay until a report job rewrites them or the
+// row budget pushes them out. Open periods always go to the database.
+@Service
+public class ReportQueryService {
+
+    private enum Kind { DAILY_RANGE, DAILY_DATE, MONTHLY, MONTHLY_YEAR }
+
+    // Every query covers a span of days, which is what invalidation matches against
+    private record Key(Kind kind, LocalDate start, LocalDate end) {
+
+        boolean covers(LocalDate day) {
+            return !day.isBefore(start) && !day.isAfter(end);
+        }
+    }
+
+    private final DailyReportRepository dailyReportRepository;
+    private final MonthlyReportRepository monthlyReportRepository;
+    private final Cache<Key, List<?>> cache;
+    // Bumped on every invalidation, so a load that overlapped one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public ReportQueryService(DailyReportRepository dailyReportRepository,
+                              MonthlyReportRepository monthlyReportRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${monitor.reports.cache.max-rows:100000}") long maxRows) {
+        this.dailyReportRepository = dailyReportRepository;
+        this.monthlyReportRepository = monthlyReportRepository;
+        // Weighed by rows so one year-long range counts for more than a single day
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxRows)
+                .weigher((Key key, List<?> value) -> value.size() + 1)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "reports");
+    }
+
+    public List<DailyReport> getDailyReports(LocalDate start, LocalDate end) {
+        return get(new Key(Kind.DAILY_RANGE, start, end), end.isBefore(LocalDate.now()),
+                () -> dailyReportRepository.findByReportDateBetween(start, end));
+    }
+
+    public List<DailyReport> getDailyReports(LocalDate date) {
+        return get(new Key(Kind.DAILY_DATE, date, date), date.isBefore(LocalDate.now()),
+                () -> dailyReportRepository.findByReportDate(date));
+    }
+
+    public List<MonthlyReport> getMonthlyReports(int year, int month) {
+        YearMonth period = YearMonth.of(year, month);
+        return get(new Key(Kind.MONTHLY, period.atDay(1), period.atEndOfMonth()), period.isBefore(YearMonth.now()),
+                () -> monthlyReportRepository.findByReportMonthAndReportYear(month, year));
+    }
+
+    public List<MonthlyReport> getMonthlyReports(int year) {
+        return get(new Key(Kind.MONTHLY_YEAR, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31)),
+                year < LocalDate.now().getYear(),
+                () -> monthlyReportRepository.findByReportYearOrderByReportMonthAsc(year));
+    }
+
+    // Called once a day's reports have been rewritten
+    public void evictDaily(LocalDate date) {
+        evict(key -> (key.kind() == Kind.DAILY_RANGE || key.kind() == Kind.DAILY_DATE) && key.covers(date));
+    }
+
+    public void evictMonthly(YearMonth month) {
+        evict(key -> (key.kind() == Kind.MONTHLY || key.kind() == Kind.MONTHLY_YEAR) && key.covers(month.atDay(1)));
+    }
+
+    private void evict(Predicate<Key> matches) {
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(matches);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> get(Key key, boolean closed, Supplier<List<T>> loader) {
+        if (!closed) return loader.get();
+
+        List<T> cached = (List<T>) cache.getIfPresent(key);
+        if (cached != null) return cached;
+
+        long before = generation.get();
+        List<T> loaded = List.copyOf(loader.get());
+        if (generation.get() == before) {
+            cache.put(key, loaded);
+        }
+        return loaded;
+    }
+}
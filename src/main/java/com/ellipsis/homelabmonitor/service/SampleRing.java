@@ -0,0 +1,92 @@
+package com.ellipsis.homelabmonitor.service;
+
+import com.ellipsis.homelabmonitor.model.ContainerState;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed-size ring of one container's recent samples in parallel primitive arrays, so a full
+// ring costs capacity * 29 bytes no matter how long the app runs. Writers claim a slot with a
+// counter and publish it with a per-slot sequence number; readers check that number before and
+// after reading a slot and skip it if a writer got there in between (a per-slot seqlock).
+// Neither side locks or allocates.
+public final class SampleRing {
+
+    // A sample field that wasn't measured, e.g. CPU of a container without a stats stream
+    public static final long NO_MEMORY = -1;
+
+    @FunctionalInterface
+    public interface Visitor {
+        void sample(long timeMillis, ContainerState state, float cpuPercent, long memoryBytes);
+    }
+
+    private static final ContainerState[] STATES = ContainerState.values();
+
+    private final int capacity;
+    private final long[] times;
+    private final byte[] states;
+    private final float[] cpu;
+    private final long[] memory;
+    // Number of the sample held in each slot, -1 while it is being written
+    private final AtomicLongArray sequence;
+    private final AtomicLong next = new AtomicLong();
+    private volatile long lastTime = Long.MIN_VALUE;
+
+    public SampleRing(int capacity) {
+        this.capacity = capacity;
+        this.times = new long[capacity];
+        this.states = new byte[capacity];
+        this.cpu = new float[capacity];
+        this.memory = new long[capacity];
+        this.sequence = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) sequence.set(i, -1);
+    }
+
+    // Skipped when the previous sample is less than minIntervalMs old
+    public boolean append(long timeMillis, ContainerState state, float cpuPercent, long memoryBytes, long minIntervalMs) {
+        long last = lastTime;
+        if (last != Long.MIN_VALUE && timeMillis - last < minIntervalMs) return false;
+        lastTime = timeMillis;
+
+        long n = next.getAndIncrement();
+        int slot = (int) (n % capacity);
+        sequence.set(slot, -1);
+        VarHandle.storeStoreFence();
+        times[slot] = timeMillis;
+        states[slot] = (byte) state.ordinal();
+        cpu[slot] = cpuPercent;
+        memory[slot] = memoryBytes;
+        sequence.setRelease(slot, n);
+        return true;
+    }
+
+    // Oldest first, samples at or after sinceMillis. Returns how many were visited.
+    public int read(long sinceMillis, Visitor visitor) {
+        long end = next.get();
+        int visited = 0;
+        for (long n = Math.max(0, end - capacity); n < end; n++) {
+            int slot = (int) (n % capacity);
+            if (sequence.getAcquire(slot) != n) continue;
+            long time = times[slot];
+            byte state = states[slot];
+            float cpuPercent = cpu[slot];
+            long memoryBytes = memory[slot];
+            VarHandle.loadLoadFence();
+            if (sequence.get(slot) != n) continue;
+
+            if (time < sinceMillis) continue;
+            visitor.sample(time, STATES[state], cpuPercent, memoryBytes);
+            visited++;
+        }
+        return visited;
+    }
+
+    public long lastTime() {
+        return lastTime;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
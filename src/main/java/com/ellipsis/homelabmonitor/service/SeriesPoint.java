@@ -0,0 +1,7 @@
+package com.ellipsis.homelabmonitor.service;
+
+import java.time.LocalDateTime;
+
+// uptimeRatio is 0..1, samples is the number of polls (or poll-sized slots in change-log mode)
+public record SeriesPoint(LocalDateTime start, double uptimeRatio, long samples, long stateChanges) {
+}
@@ -0,0 +1,466 @@
+package com.ellipsis.homelabmonitor.service;
+
+import com.ellipsis.homelabmonitor.event.ContainerEvent;
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import com.ellipsis.homelabmonitor.repository.SnapshotSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Bounded write-behind queue between the poller and PostgreSQL. Polls only enqueue,
+// a background flusher writes batches on size or time, and rows that can't be written
+// are spilled to an append-only file (when configured) and replayed once the DB is back.
+// Container events ride along and are written to the outbox in the same transaction as
+// the next batch. While the DB is down they are spilled to a file of their own next to the
+// rows' (when configured), and replayed before anything else once it is back.
+@Slf4j
+@Component
+public class SnapshotWriteBuffer {
+
+    public enum OverflowPolicy { DROP_OLDEST, DROP_NEWEST, BLOCK }
+
+    private final SnapshotSink writer;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMs;
+    private final Path spillFile;
+    private final Path eventSpillFile;
+
+    private final LinkedBlockingDeque<ContainerInfo> queue;
+    private final LinkedBlockingDeque<ContainerEvent> events;
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushPending = new AtomicBoolean();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "snapshot-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Timer flushTimer;
+    private final Counter writtenRows;
+    private final Counter droppedRows;
+    private final Counter spilledRows;
+    private final Counter replayedRows;
+    private final Counter flushFailures;
+    private final Counter droppedEvents;
+    private final Counter spilledEvents;
+
+    public SnapshotWriteBuffer(SnapshotSink writer,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${monitor.write-behind.capacity:10000}") int capacity,
+                               @Value("${monitor.write-behind.batch-size:500}") int batchSize,
+                               @Value("${monitor.write-behind.flush-interval-ms:5000}") long flushIntervalMs,
+                               @Value("${monitor.write-behind.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+                               @Value("${monitor.write-behind.block-timeout-ms:1000}") long blockTimeoutMs,
+                               @Value("${monitor.write-behind.spill-file:}") String spillFile,
+                               @Value("${monitor.write-behind.event-capacity:10000}") int eventCapacity) {
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.spillFile = spillFile == null || spillFile.isBlank() ? null : Path.of(spillFile);
+        this.eventSpillFile = this.spillFile == null ? null
+                : this.spillFile.resolveSibling(this.spillFile.getFileName() + ".events");
+        this.queue = new LinkedBlockingDeque<>(capacity);
+        this.events = new LinkedBlockingDeque<>(eventCapacity);
+
+        Gauge.builder("monitor.writebehind.queue.depth", queue, LinkedBlockingDeque::size)
+                .description("Snapshot rows waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("monitor.writebehind.spill.bytes", this, SnapshotWriteBuffer::spillFileSize)
+                .description("Size of the local spill file")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("monitor.writebehind.flush")
+                .description("Latency of flushing a batch to PostgreSQL")
+                .register(meterRegistry);
+        this.writtenRows = meterRegistry.counter("monitor.writebehind.rows.written");
+        this.droppedRows = meterRegistry.counter("monitor.writebehind.rows.dropped");
+        this.spilledRows = meterRegistry.counter("monitor.writebehind.rows.spilled");
+        this.replayedRows = meterRegistry.counter("monitor.writebehind.rows.replayed");
+        this.flushFailures = meterRegistry.counter("monitor.writebehind.flush.failures");
+        this.droppedEvents = meterRegistry.counter("monitor.writebehind.events.dropped");
+        this.spilledEvents = meterRegistry.counter("monitor.writebehind.events.spilled");
+        Gauge.builder("monitor.writebehind.events.depth", events, LinkedBlockingDeque::size)
+                .description("Container events waiting to be written to the outbox")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    public void enqueue(List<ContainerInfo> containers) {
+        for (ContainerInfo container : containers) {
+            if (queue.offerLast(container)) continue;
+
+            switch (overflowPolicy) {
+                case DROP_OLDEST -> {
+                    while (!queue.offerLast(container)) {
+                        if (queue.pollFirst() != null) droppedRows.increment();
+                    }
+                }
+                case DROP_NEWEST -> droppedRows.increment();
+                case BLOCK -> {
+                    try {
+                        if (!queue.offerLast(container, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                            droppedRows.increment();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        droppedRows.increment();
+                        return;
+                    }
+                }
+            }
+        }
+
+        if (queue.size() >= batchSize) requestFlush();
+    }
+
+    // Events are rare and worth delivering promptly, so each one asks for a flush
+    public void enqueueEvent(ContainerEvent event) {
+        if (!events.offerLast(event)) {
+            // Full: flush in the caller, which writes or spills what is queued, instead of dropping
+            if (spillFile != null) flushQuietly();
+            while (!events.offerLast(event)) {
+                if (events.pollFirst() != null) droppedEvents.increment();
+            }
+        }
+        requestFlush();
+    }
+
+    private void requestFlush() {
+        if (flushPending.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushPending.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    public int depth() {
+        return queue.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Write-behind flush failed: {}", e.getMessage());
+        }
+    }
+
+    // Drains the queue in batches, replaying the spill file first once a write succeeds
+    public void flush() {
+        synchronized (flushLock) {
+            List<ContainerInfo> batch;
+            if (!replaySpill() || !replayEventSpill()) {
+                // DB still unreachable, keep memory bounded by moving queued rows and events to disk
+                if (spillFile == null) return;
+                spillEvents(drainAllEvents());
+                while (!(batch = drain()).isEmpty()) {
+                    if (!spill(batch)) return;
+                }
+                return;
+            }
+
+            while (true) {
+                batch = drain();
+                List<ContainerEvent> pendingEvents = drainEvents();
+                if (batch.isEmpty() && pendingEvents.isEmpty()) return;
+
+                if (!write(batch, pendingEvents)) {
+                    if (spillFile != null) {
+                        spillEvents(pendingEvents);
+                        spill(batch);
+                    } else {
+                        requeueEvents(pendingEvents);
+                        requeue(batch);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    private List<ContainerInfo> drain() {
+        List<ContainerInfo> batch = new ArrayList<>(Math.min(batchSize, queue.size()));
+        queue.drainTo(batch, batchSize);
+        return batch;
+    }
+
+    private List<ContainerEvent> drainEvents() {
+        List<ContainerEvent> batch = new ArrayList<>(Math.min(batchSize, events.size()));
+        events.drainTo(batch, batchSize);
+        return batch;
+    }
+
+    private List<ContainerEvent> drainAllEvents() {
+        List<ContainerEvent> batch = new ArrayList<>(events.size());
+        events.drainTo(batch);
+        return batch;
+    }
+
+    private boolean write(List<ContainerInfo> batch) {
+        return write(batch, List.of());
+    }
+
+    private boolean write(List<ContainerInfo> batch, List<ContainerEvent> pendingEvents) {
+        long start = System.nanoTime();
+        try {
+            writer.write(batch, pendingEvents);
+            writtenRows.increment(batch.size());
+            return true;
+        } catch (Exception e) {
+            flushFailures.increment();
+            log.warn("Database unavailable, holding {} snapshot rows: {}", batch.size(), e.getMessage());
+            return false;
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Puts a failed batch back at the head in its original order, dropping the oldest rows if it no longer fits
+    private void requeue(List<ContainerInfo> batch) {
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            if (!queue.offerFirst(batch.get(i))) droppedRows.increment();
+        }
+    }
+
+    private void requeueEvents(List<ContainerEvent> batch) {
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            if (!events.offerFirst(batch.get(i))) droppedEvents.increment();
+        }
+    }
+
+    private boolean spill(List<ContainerInfo> batch) {
+        if (batch.isEmpty()) return true;
+        try (BufferedWriter out = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (ContainerInfo container : batch) {
+                out.write(objectMapper.writeValueAsString(container));
+                out.newLine();
+            }
+            spilledRows.increment(batch.size());
+            return true;
+        } catch (IOException e) {
+            log.warn("Failed to spill snapshot rows to {}: {}", spillFile, e.getMessage());
+            requeue(batch);
+            return false;
+        }
+    }
+
+    private void spillEvents(List<ContainerEvent> batch) {
+        if (batch.isEmpty()) return;
+        try (BufferedWriter out = Files.newBufferedWriter(eventSpillFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (ContainerEvent event : batch) {
+                out.write(objectMapper.writeValueAsString(event));
+                out.newLine();
+            }
+            spilledEvents.increment(batch.size());
+        } catch (IOException e) {
+            log.warn("Failed to spill container events to {}: {}", eventSpillFile, e.getMessage());
+            requeueEvents(batch);
+        }
+    }
+
+    // Events are few, so the file is read whole and only removed once every event is in the
+    // outbox. A crash part way writes the already written ones again. Returns false if the
+    // database is still unreachable.
+    private boolean replayEventSpill() {
+        if (eventSpillFile == null || !Files.exists(eventSpillFile)) return true;
+
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(eventSpillFile, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("Failed to read event spill file {}: {}", eventSpillFile, e.getMessage());
+            return true;
+        }
+
+        List<ContainerEvent> batch = new ArrayList<>(batchSize);
+        int batchStart = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (!line.isBlank()) {
+                try {
+                    batch.add(objectMapper.readValue(line, ContainerEvent.class));
+                } catch (IOException e) {
+                    droppedEvents.increment();
+                }
+            }
+            if (batch.size() < batchSize && i < lines.size() - 1) continue;
+
+            if (!batch.isEmpty() && !write(List.of(), batch)) {
+                if (batchStart > 0) keepEventSpill(lines.subList(batchStart, lines.size()));
+                return false;
+            }
+            batch = new ArrayList<>(batchSize);
+            batchStart = i + 1;
+        }
+
+        try {
+            Files.deleteIfExists(eventSpillFile);
+        } catch (IOException e) {
+            log.warn("Failed to remove event spill file {}: {}", eventSpillFile, e.getMessage());
+        }
+        return true;
+    }
+
+    // Rewrites the event spill file with the events still to be written
+    private void keepEventSpill(List<String> remaining) {
+        Path rest = eventSpillFile.resolveSibling(eventSpillFile.getFileName() + ".tmp");
+        try {
+            Files.write(rest, remaining, StandardCharsets.UTF_8);
+            Files.move(rest, eventSpillFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to rewrite event spill file {}: {}", eventSpillFile, e.getMessage());
+        }
+    }
+
+    // Returns false if the database is still unreachable
+    private boolean replaySpill() {
+        if (spillFile == null) return true;
+
+        Path replaying = replayingFile();
+        try {
+            if (Files.exists(replaying)) {
+                // Left by a replay that was killed or failed to read. Its rows are older than
+                // the spill file's, so they go first; rows it had already written are written
+                // again rather than lost.
+                if (Files.exists(spillFile)) {
+                    try (OutputStream out = Files.newOutputStream(replaying, StandardOpenOption.APPEND)) {
+                        Files.copy(spillFile, out);
+                    }
+                    Files.delete(spillFile);
+                }
+            } else if (Files.exists(spillFile)) {
+                Files.move(spillFile, replaying);
+            } else {
+                return true;
+            }
+        } catch (IOException e) {
+            log.warn("Failed to open spill file {}: {}", spillFile, e.getMessage());
+            return true;
+        }
+
+        boolean restored = false;
+        try (BufferedReader in = Files.newBufferedReader(replaying, StandardCharsets.UTF_8)) {
+            List<ContainerInfo> batch = new ArrayList<>(batchSize);
+            boolean replayedAny = false;
+            String line = in.readLine();
+            while (line != null) {
+                if (!line.isBlank()) {
+                    try {
+                        batch.add(objectMapper.readValue(line, ContainerInfo.class));
+                    } catch (IOException e) {
+                        droppedRows.increment();
+                    }
+                }
+                line = in.readLine();
+                if (batch.size() < batchSize && (line != null || batch.isEmpty())) continue;
+
+                if (!write(batch)) {
+                    if (!replayedAny) {
+                        // Nothing consumed yet, put the file back as it was
+                        in.close();
+                        Files.move(replaying, spillFile);
+                        restored = true;
+                    } else {
+                        respill(batch, line, in);
+                    }
+                    return false;
+                }
+                replayedRows.increment(batch.size());
+                replayedAny = true;
+                batch = new ArrayList<>(batchSize);
+            }
+            return true;
+        } catch (IOException e) {
+            // Left on disk and picked up again by the next replay
+            log.warn("Failed to replay spill file {}: {}", replaying, e.getMessage());
+            restored = true;
+            return true;
+        } finally {
+            if (!restored) {
+                try {
+                    Files.deleteIfExists(replaying);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    // The failed batch and the unread rest of the replay go back into the spill file
+    private void respill(List<ContainerInfo> batch, String line, BufferedReader rest) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (ContainerInfo container : batch) {
+                out.write(objectMapper.writeValueAsString(container));
+                out.newLine();
+            }
+            for (; line != null; line = rest.readLine()) {
+                out.write(line);
+                out.newLine();
+            }
+        }
+    }
+
+    private Path replayingFile() {
+        return spillFile.resolveSibling(spillFile.getFileName() + ".replaying");
+    }
+
+    private double spillFileSize() {
+        if (spillFile == null) return 0;
+        try {
+            long size = Files.exists(spillFile) ? Files.size(spillFile) : 0;
+            Path replaying = replayingFile();
+            size += Files.exists(replaying) ? Files.size(replaying) : 0;
+            return size + (Files.exists(eventSpillFile) ? Files.size(eventSpillFile) : 0);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
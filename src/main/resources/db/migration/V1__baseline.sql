@@ -0,0 +1,108 @@
+-- Tables as Hibernate created them with ddl-auto=update. IF NOT EXISTS so databases
+-- that already have them (baselined at version 0) just pick up anything missing. Tables
+-- from an older release can lack columns added since (container_info had no host before
+-- multi-host polling), so every column is added again with ADD COLUMN IF NOT EXISTS.
+
+CREATE TABLE IF NOT EXISTS container_info (
+    db_id      bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    host       varchar(255),
+    id         varchar(255),
+    name       varchar(255),
+    status     varchar(255),
+    image      varchar(255),
+    checked_at timestamp(6)
+);
+
+ALTER TABLE container_info
+    ADD COLUMN IF NOT EXISTS host       varchar(255),
+    ADD COLUMN IF NOT EXISTS id         varchar(255),
+    ADD COLUMN IF NOT EXISTS name       varchar(255),
+    ADD COLUMN IF NOT EXISTS status     varchar(255),
+    ADD COLUMN IF NOT EXISTS image      varchar(255),
+    ADD COLUMN IF NOT EXISTS checked_at timestamp(6);
+
+-- Rows from before multi-host polling came from the single DOCKER_HOST endpoint
+UPDATE container_info SET host = 'local' WHERE host IS NULL;
+
+CREATE TABLE IF NOT EXISTS daily_report (
+    id                bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    container_name    varchar(255),
+    report_date       date,
+    total_snapshots   integer NOT NULL,
+    running_snapshots integer NOT NULL,
+    uptime_percentage float(53) NOT NULL,
+    incident_count    integer NOT NULL,
+    generated_at      timestamp(6)
+);
+
+ALTER TABLE daily_report
+    ADD COLUMN IF NOT EXISTS container_name    varchar(255),
+    ADD COLUMN IF NOT EXISTS report_date       date,
+    ADD COLUMN IF NOT EXISTS total_snapshots   integer NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS running_snapshots integer NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS uptime_percentage float(53) NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS incident_count    integer NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS generated_at      timestamp(6);
+
+CREATE TABLE IF NOT EXISTS monthly_report (
+    id                         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    container_name             varchar(255),
+    report_month               integer NOT NULL,
+    report_year                integer NOT NULL,
+    average_uptime_percentage  float(53) NOT NULL,
+    total_incidents            integer NOT NULL,
+    days_with_incidents        integer NOT NULL,
+    total_days_reported        integer NOT NULL,
+    generated_at               timestamp(6)
+);
+
+ALTER TABLE monthly_report
+    ADD COLUMN IF NOT EXISTS container_name             varchar(255),
+    ADD COLUMN IF NOT EXISTS report_month               integer NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS report_year                integer NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS average_uptime_percentage  float(53) NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS total_incidents            integer NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS days_with_incidents        integer NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS total_days_reported        integer NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS generated_at               timestamp(6);
+
+CREATE TABLE IF NOT EXISTS container_state_interval (
+    id             bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    host           varchar(255),
+    container_id   varchar(255),
+    container_name varchar(255),
+    image          varchar(255),
+    status         varchar(255),
+    valid_from     timestamp(6),
+    valid_to       timestamp(6)
+);
+
+ALTER TABLE container_state_interval
+    ADD COLUMN IF NOT EXISTS host           varchar(255),
+    ADD COLUMN IF NOT EXISTS container_id   varchar(255),
+    ADD COLUMN IF NOT EXISTS container_name varchar(255),
+    ADD COLUMN IF NOT EXISTS image          varchar(255),
+    ADD COLUMN IF NOT EXISTS status         varchar(255),
+    ADD COLUMN IF NOT EXISTS valid_from     timestamp(6),
+    ADD COLUMN IF NOT EXISTS valid_to       timestamp(6);
+
+CREATE TABLE IF NOT EXISTS live_uptime_checkpoint (
+    id                bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    report_date       date,
+    container_name    varchar(255),
+    total_snapshots   integer NOT NULL,
+    running_snapshots integer NOT NULL,
+    incident_count    integer NOT NULL,
+    last_status       varchar(255),
+    updated_at        timestamp(6),
+    UNIQUE (report_date, container_name)
+);
+
+ALTER TABLE live_uptime_checkpoint
+    ADD COLUMN IF NOT EXISTS report_date       date,
+    ADD COLUMN IF NOT EXISTS container_name    varchar(255),
+    ADD COLUMN IF NOT EXISTS total_snapshots   integer NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS running_snapshots integer NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS incident_count    integer NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS last_status       varchar(255),
+    ADD COLUMN IF NOT EXISTS updated_at        timestamp(6);
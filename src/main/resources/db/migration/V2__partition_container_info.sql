@@ -0,0 +1,47 @@
+-- container_info becomes range partitioned by day on checked_at, so retention can drop
+-- whole partitions instead of running one large DELETE. The partition key has to be part
+-- of the primary key. db_id comes from a plain sequence because identity columns on
+-- partitioned tables need PostgreSQL 17.
+
+ALTER TABLE container_info RENAME TO container_info_legacy;
+
+CREATE SEQUENCE container_info_db_seq;
+
+CREATE TABLE container_info (
+    db_id      bigint NOT NULL DEFAULT nextval('container_info_db_seq'),
+    host       varchar(255),
+    id         varchar(255),
+    name       varchar(255),
+    status     varchar(255),
+    image      varchar(255),
+    checked_at timestamp(6) NOT NULL,
+    PRIMARY KEY (db_id, checked_at)
+) PARTITION BY RANGE (checked_at);
+
+ALTER SEQUENCE container_info_db_seq OWNED BY container_info.db_id;
+
+-- Catches rows outside any daily partition. Kept empty in normal operation, since a
+-- day's partition can't be created while the default partition holds rows for that day.
+CREATE TABLE container_info_default PARTITION OF container_info DEFAULT;
+
+-- One partition per day that already has data, plus the next few days
+DO $$
+DECLARE
+    first_day date;
+    day date;
+BEGIN
+    SELECT coalesce(min(checked_at)::date, current_date) INTO first_day FROM container_info_legacy;
+    FOR day IN SELECT generate_series(first_day, current_date + 3, interval '1 day')::date LOOP
+        EXECUTE format('CREATE TABLE container_info_p%s PARTITION OF container_info FOR VALUES FROM (%L) TO (%L)',
+                       to_char(day, 'YYYYMMDD'), day, day + 1);
+    END LOOP;
+END $$;
+
+INSERT INTO container_info (db_id, host, id, name, status, image, checked_at)
+SELECT db_id, host, id, name, status, image, checked_at
+FROM container_info_legacy
+WHERE checked_at IS NOT NULL;
+
+SELECT setval('container_info_db_seq', coalesce((SELECT max(db_id) FROM container_info), 0) + 1, false);
+
+DROP TABLE container_info_legacy;
@@ -0,0 +1,32 @@
+-- Indexes for the repository finders, and natural keys for the report tables.
+-- Indexes on the partitioned container_info cascade to every partition, current and future.
+
+CREATE INDEX container_info_checked_at_idx ON container_info (checked_at, db_id);
+CREATE INDEX container_info_name_checked_at_idx ON container_info (name, checked_at);
+CREATE INDEX container_info_host_checked_at_idx ON container_info (host, checked_at);
+
+CREATE INDEX container_state_interval_valid_to_idx ON container_state_interval (valid_to);
+CREATE INDEX container_state_interval_name_valid_to_idx ON container_state_interval (container_name, valid_to);
+
+-- Re-running report generation used to insert duplicates, keep the newest row of each
+DELETE FROM daily_report a
+USING daily_report b
+WHERE a.container_name = b.container_name
+  AND a.report_date = b.report_date
+  AND a.id < b.id;
+
+ALTER TABLE daily_report
+    ADD CONSTRAINT daily_report_container_date_key UNIQUE (container_name, report_date);
+CREATE INDEX daily_report_date_idx ON daily_report (report_date);
+
+DELETE FROM monthly_report a
+USING monthly_report b
+WHERE a.container_name = b.container_name
+  AND a.report_year = b.report_year
+  AND a.report_month = b.report_month
+  AND a.id < b.id;
+
+-- Year first so it also serves the per-year listing
+ALTER TABLE monthly_report
+    ADD CONSTRAINT monthly_report_year_month_container_key UNIQUE (report_year, report_month, container_name);
+CREATE INDEX monthly_report_container_idx ON monthly_report (container_name, report_year, report_month);
@@ -0,0 +1,14 @@
+-- Container events waiting to be published to Kafka. Rows are written in the same
+-- transaction as the snapshot batch they were flushed with and deleted once acknowledged.
+
+CREATE TABLE event_outbox (
+    id              bigserial PRIMARY KEY,
+    host            varchar(255),
+    container_id    varchar(255),
+    container_name  varchar(255),
+    previous_status varchar(255),
+    current_status  varchar(255),
+    event_type      varchar(255),
+    occurred_at     timestamp(6),
+    created_at      timestamp(6) NOT NULL DEFAULT now()
+);
@@ -0,0 +1,16 @@
+-- Incidents paired from CONTAINER_DOWN/CONTAINER_UP events by the in-process consumer.
+-- An open incident has no ended_at. (host, container_name, started_at) makes redelivered
+-- events no-ops.
+
+CREATE TABLE container_incident (
+    id             bigserial PRIMARY KEY,
+    host           varchar(255) NOT NULL,
+    container_name varchar(255) NOT NULL,
+    started_at     timestamp(6) NOT NULL,
+    ended_at       timestamp(6),
+    duration_ms    bigint,
+    CONSTRAINT container_incident_start_key UNIQUE (host, container_name, started_at)
+);
+
+CREATE INDEX container_incident_started_at_idx ON container_incident (started_at);
+CREATE INDEX container_incident_open_idx ON container_incident (host, container_name) WHERE ended_at IS NULL;
@@ -0,0 +1,13 @@
+-- Normalized state as a code (see ContainerState), so readers compare a smallint
+-- instead of lower()-ing and pattern-matching the raw Docker status on every row
+ALTER TABLE container_info ADD COLUMN state smallint;
+
+UPDATE container_info SET state = CASE
+    WHEN lower(status) LIKE 'up%' OR lower(status) LIKE 'restarting%' THEN 1
+    WHEN lower(status) LIKE 'exited%' THEN 2
+    WHEN lower(status) LIKE 'paused%' THEN 3
+    ELSE 0
+END;
+
+ALTER TABLE container_info ALTER COLUMN state SET DEFAULT 0;
+ALTER TABLE container_info ALTER COLUMN state SET NOT NULL;
@@ -0,0 +1,32 @@
+-- Resource samples from the Docker stats streams. Fixed-width numeric columns only and no
+-- surrogate key, so a row stays small; queries go by container and time range.
+CREATE TABLE container_metrics (
+    host               varchar(255) NOT NULL,
+    container_name     varchar(255) NOT NULL,
+    sampled_at         timestamp(6) NOT NULL,
+    cpu_percent        real         NOT NULL,
+    memory_bytes       bigint       NOT NULL,
+    memory_limit_bytes bigint       NOT NULL,
+    net_rx_bytes       bigint       NOT NULL,
+    net_tx_bytes       bigint       NOT NULL,
+    block_read_bytes   bigint       NOT NULL,
+    block_write_bytes  bigint       NOT NULL
+);
+
+CREATE INDEX idx_container_metrics_name_time ON container_metrics (container_name, sampled_at);
+
+-- Rows arrive in time order, so a BRIN index covers retention deletes at a tiny size
+CREATE INDEX idx_container_metrics_time ON container_metrics USING brin (sampled_at);
+
+-- Average and peak CPU / memory per report period, null when no samples were taken
+ALTER TABLE daily_report
+    ADD COLUMN average_cpu_percentage double precision,
+    ADD COLUMN peak_cpu_percentage    double precision,
+    ADD COLUMN average_memory_bytes   bigint,
+    ADD COLUMN peak_memory_bytes      bigint;
+
+ALTER TABLE monthly_report
+    ADD COLUMN average_cpu_percentage double precision,
+    ADD COLUMN peak_cpu_percentage    double precision,
+    ADD COLUMN average_memory_bytes   bigint,
+    ADD COLUMN peak_memory_bytes      bigint;
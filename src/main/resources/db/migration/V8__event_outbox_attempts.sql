@@ -0,0 +1,21 @@
+-- Failed sends that were the row's own fault (it can't be serialized, it's too large, ...)
+-- are counted per row. After monitor.outbox.max-attempts the row is moved to the dead
+-- letter table, so one bad event can't hold back every event queued behind it.
+ALTER TABLE event_outbox
+    ADD COLUMN attempts   int NOT NULL DEFAULT 0,
+    ADD COLUMN last_error varchar(1000);
+
+CREATE TABLE event_outbox_dead_letter (
+    id              bigint PRIMARY KEY,
+    host            varchar(255),
+    container_id    varchar(255),
+    container_name  varchar(255),
+    previous_status varchar(255),
+    current_status  varchar(255),
+    event_type      varchar(255),
+    occurred_at     timestamp(6),
+    created_at      timestamp(6) NOT NULL,
+    attempts        int          NOT NULL,
+    last_error      varchar(1000),
+    failed_at       timestamp(6) NOT NULL DEFAULT now()
+);
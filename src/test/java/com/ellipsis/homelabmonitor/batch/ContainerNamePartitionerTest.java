@@ -0,0 +1,70 @@
+package com.ellipsis.homelabmonitor.batch;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ContainerNamePartitionerTest {
+
+    private static final String NAMES_SQL = "SELECT DISTINCT name FROM container_info WHERE checked_at >= ? ORDER BY name";
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+    private static ContainerNamePartitioner partitioner(List<String> names) {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForList(NAMES_SQL, String.class, DAY)).thenReturn(names);
+        return new ContainerNamePartitioner(jdbcTemplate, NAMES_SQL, DAY);
+    }
+
+    @Test
+    void splitsNamesIntoContiguousNonOverlappingRanges() {
+        List<String> names = List.of("a", "b", "c", "d", "e", "f", "g");
+
+        Map<String, ExecutionContext> partitions = new TreeMap<>(partitioner(names).partition(3));
+
+        assertEquals(3, partitions.size());
+        assertRange(partitions.get("partition0"), "a", "c", 3);
+        assertRange(partitions.get("partition1"), "d", "f", 3);
+        assertRange(partitions.get("partition2"), "g", "g", 1);
+        int covered = partitions.values().stream().mapToInt(c -> c.getInt("containers")).sum();
+        assertEquals(names.size(), covered);
+    }
+
+    @Test
+    void pruneBoundsCoverTheGapsBetweenRanges() {
+        Map<String, ExecutionContext> partitions = partitioner(List.of("b", "d", "f", "h")).partition(2);
+
+        // [-inf, "f") and ["f", +inf): a stale "a", "e" or "z" belongs to exactly one partition
+        assertFalse(partitions.get("partition0").containsKey("pruneFrom"));
+        assertEquals("f", partitions.get("partition0").getString("pruneTo"));
+        assertEquals("f", partitions.get("partition1").getString("pruneFrom"));
+        assertFalse(partitions.get("partition1").containsKey("pruneTo"));
+    }
+
+    @Test
+    void neverCreatesMorePartitionsThanNames() {
+        Map<String, ExecutionContext> partitions = partitioner(List.of("a", "b")).partition(4);
+
+        assertEquals(2, partitions.size());
+        assertRange(partitions.get("partition0"), "a", "a", 1);
+        assertRange(partitions.get("partition1"), "b", "b", 1);
+    }
+
+    @Test
+    void noNamesNoPartitions() {
+        assertTrue(partitioner(List.of()).partition(4).isEmpty());
+    }
+
+    private static void assertRange(ExecutionContext context, String from, String to, int containers) {
+        assertEquals(from, context.getString("fromName"));
+        assertEquals(to, context.getString("toName"));
+        assertEquals(containers, context.getInt("containers"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.ellipsis.homelabmonitor.batch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReportJobLauncherTest {
+
+    private final JobRepository jobRepository = mock(JobRepository.class);
+    private final JobExplorer jobExplorer = mock(JobExplorer.class);
+    private final Job dailyJob = mock(Job.class);
+    private final ReportJobLauncher launcher;
+
+    ReportJobLauncherTest() {
+        when(dailyJob.getName()).thenReturn(ReportJobsConfig.DAILY_JOB);
+        launcher = new ReportJobLauncher(jobRepository, jobExplorer, dailyJob, mock(Job.class), 1, 1, 31);
+    }
+
+    @AfterEach
+    void tearDown() {
+        launcher.stop();
+    }
+
+    private static JobExecution execution(long id, LocalDate date, BatchStatus status) {
+        JobParameters parameters = new JobParametersBuilder().addLocalDate("date", date)
+                .addLong("rerun", 1L).toJobParameters();
+        JobExecution execution = new JobExecution(new JobInstance(1L, ReportJobsConfig.DAILY_JOB), id, parameters);
+        execution.setStatus(status);
+        return execution;
+    }
+
+    @Test
+    void scheduledRunWaitsForTheRerunAlreadyRunningForThatDay() throws Exception {
+        LocalDate day = LocalDate.now().minusDays(1);
+        when(jobExplorer.findRunningJobExecutions(ReportJobsConfig.DAILY_JOB))
+                .thenReturn(Set.of(execution(7, day, BatchStatus.STARTED)));
+        when(jobExplorer.getJobExecution(7L))
+                .thenReturn(execution(7, day, BatchStatus.STARTED))
+                .thenReturn(execution(7, day, BatchStatus.COMPLETED));
+
+        assertEquals(BatchStatus.COMPLETED, launcher.runDaily(day, false));
+
+        verify(jobExplorer, times(2)).getJobExecution(7L);
+        verify(jobRepository, never()).createJobExecution(anyString(), any());
+    }
+
+    @Test
+    void backfillRejectsInvalidRanges() {
+        LocalDate today = LocalDate.now();
+
+        assertThrows(IllegalArgumentException.class, () -> launcher.backfill(today.minusDays(2), today.minusDays(3)));
+        assertThrows(IllegalArgumentException.class, () -> launcher.backfill(today.minusDays(2), today));
+        assertThrows(IllegalArgumentException.class, () -> launcher.backfill(today.minusDays(40), today.minusDays(1)));
+        verifyNoInteractions(jobExplorer, jobRepository);
+    }
+}
@@ -0,0 +1,130 @@
+package com.ellipsis.homelabmonitor.batch;
+
+import com.ellipsis.homelabmonitor.model.MonthlyReport;
+import com.ellipsis.homelabmonitor.repository.ReportWriter;
+import com.ellipsis.homelabmonitor.service.ReportQueryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+// Runs the real monthly job on H2 with a writer that fails one partition once, then
+// restarts it with the same parameters: only the failed partition may run again.
+@SpringJUnitConfig
+class ReportJobRestartTest {
+
+    private static final LocalDate MONTH = LocalDate.of(2026, 3, 1);
+
+    @Configuration
+    @EnableBatchProcessing
+    @Import(ReportJobsConfig.class)
+    static class Config {
+
+        @Bean
+        DataSource dataSource() {
+            return new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.H2)
+                    .setName(UUID.randomUUID() + ";MODE=PostgreSQL")
+                    .addScript("org/springframework/batch/core/schema-h2.sql")
+                    .build();
+        }
+
+        @Bean
+        DataSourceTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("CREATE TABLE daily_report (container_name VARCHAR(255), report_date DATE, "
+                    + "uptime_percentage DOUBLE PRECISION, incident_count INT, average_cpu_percentage DOUBLE PRECISION, "
+                    + "peak_cpu_percentage DOUBLE PRECISION, average_memory_bytes BIGINT, peak_memory_bytes BIGINT)");
+            for (int i = 0; i < 8; i++) {
+                for (int d = 0; d < 3; d++) {
+                    jdbcTemplate.update("INSERT INTO daily_report VALUES (?, ?, 99.5, 1, 1.5, 9.0, 1024, 4096)",
+                            "c-" + i, MONTH.plusDays(d));
+                }
+            }
+            return jdbcTemplate;
+        }
+
+        @Bean
+        ReportWriter reportWriter() {
+            return mock(ReportWriter.class);
+        }
+
+        @Bean
+        ReportQueryService reportQueryService() {
+            return mock(ReportQueryService.class);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    @Qualifier("monthlyReportBatchJob")
+    private Job monthlyJob;
+
+    @Autowired
+    private ReportWriter reportWriter;
+
+    @Test
+    void restartRerunsOnlyTheFailedPartition() throws Exception {
+        List<List<String>> written = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean failed = new AtomicBoolean();
+        doAnswer(invocation -> {
+            List<MonthlyReport> reports = invocation.getArgument(0);
+            List<String> names = reports.stream().map(MonthlyReport::getContainerName).toList();
+            if (names.contains("c-3") && failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("database went away");
+            }
+            written.add(names);
+            return null;
+        }).when(reportWriter).upsertMonthly(anyList());
+
+        JobParameters parameters = new JobParametersBuilder().addLocalDate("month", MONTH).toJobParameters();
+
+        assertEquals(BatchStatus.FAILED, jobLauncher.run(monthlyJob, parameters).getStatus());
+        // Default grid of 4 over 8 names, the failed partition holds c-2 and c-3
+        assertEquals(3, written.size());
+        assertFalse(written.stream().anyMatch(names -> names.contains("c-3")));
+
+        written.clear();
+        assertEquals(BatchStatus.COMPLETED, jobLauncher.run(monthlyJob, parameters).getStatus());
+        assertEquals(List.of(List.of("c-2", "c-3")), written);
+    }
+}
@@ -0,0 +1,136 @@
+package com.ellipsis.homelabmonitor.docker;
+
+import com.ellipsis.homelabmonitor.event.ContainerEvent;
+import com.ellipsis.homelabmonitor.kafka.ContainerEventProducer;
+import com.ellipsis.homelabmonitor.repository.ContainerRepository;
+import com.ellipsis.homelabmonitor.repository.ContainerStateIntervalRepository;
+import com.ellipsis.homelabmonitor.service.SnapshotWriteBuffer;
+import com.ellipsis.homelabmonitor.service.ContainerService;
+import com.ellipsis.homelabmonitor.service.ContainerSnapshotCache;
+import com.ellipsis.homelabmonitor.service.LiveUptimeTracker;
+import com.ellipsis.homelabmonitor.service.RecentMetricsBuffer;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.api.model.EventActor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ContainerEventStreamTest {
+
+    private static final String ID = "0123456789abcdef0123456789abcdef";
+
+    private final FakeEventSource eventSource = new FakeEventSource();
+    private final ContainerEventProducer producer = mock(ContainerEventProducer.class);
+    private final ContainerSnapshotCache snapshotCache = new ContainerSnapshotCache(60000);
+    private ContainerService containerService;
+    private ContainerEventStream stream;
+
+    @BeforeEach
+    void setUp() {
+        DockerClient dockerClient = mock(DockerClient.class, RETURNS_DEEP_STUBS);
+        when(dockerClient.listContainersCmd().withShowAll(true).exec()).thenReturn(List.of());
+
+        DockerEndpoint endpoint = new DockerEndpoint("local", dockerClient, dockerClient,
+                Duration.ofSeconds(1), Duration.ofSeconds(30), new CircuitBreaker(3, Duration.ofMinutes(1)));
+
+        containerService = new ContainerService(new DockerEndpoints(List.of(endpoint)),
+                mock(ContainerRepository.class), mock(ContainerStateIntervalRepository.class),
+                mock(SnapshotWriteBuffer.class), mock(LiveUptimeTracker.class), mock(RecentMetricsBuffer.class), producer, snapshotCache,
+                new SimpleMeterRegistry(), 300000, "snapshot");
+        stream = new ContainerEventStream("local", eventSource, containerService, 5, 20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.stop();
+    }
+
+    private static Event event(String action, Map<String, String> extra) {
+        Map<String, String> attributes = new HashMap<>(Map.of("name", "jellyfin", "image", "jellyfin/jellyfin"));
+        attributes.putAll(extra);
+        return new Event()
+                .withAction(action)
+                .withId(ID)
+                .withTime(System.currentTimeMillis() / 1000)
+                .withEventActor(new EventActor().withId(ID).withAttributes(attributes));
+    }
+
+    @Test
+    void crashAndRestartBetweenPollsEmitsDownThenUp() {
+        stream.start();
+        ResultCallback<Event> callback = eventSource.latest();
+
+        callback.onNext(event("start", Map.of()));
+        callback.onNext(event("die", Map.of("exitCode", "137")));
+        callback.onNext(event("start", Map.of()));
+
+        ArgumentCaptor<ContainerEvent> events = ArgumentCaptor.forClass(ContainerEvent.class);
+        verify(producer, times(2)).publishEvent(events.capture());
+        assertEquals("CONTAINER_DOWN", events.getAllValues().get(0).getEventType());
+        assertEquals("CONTAINER_UP", events.getAllValues().get(1).getEventType());
+        assertEquals("0123456789ab", events.getAllValues().get(1).getContainerId());
+        assertEquals("local", events.getAllValues().get(1).getHost());
+    }
+
+    @Test
+    void eventsUpdateTheSnapshot() {
+        stream.start();
+        ResultCallback<Event> callback = eventSource.latest();
+
+        callback.onNext(event("start", Map.of()));
+        assertEquals("Up", snapshotCache.current().containers().get(0).getStatus());
+
+        callback.onNext(event("destroy", Map.of()));
+        assertTrue(snapshotCache.current().containers().isEmpty());
+    }
+
+    @Test
+    void reconnectsWithBackoffAndResumesFromLastEvent() throws InterruptedException {
+        stream.start();
+        ResultCallback<Event> first = eventSource.latest();
+        assertTrue(containerService.isEventStreamLive("local"));
+
+        first.onNext(event("start", Map.of()));
+        first.onError(new RuntimeException("connection reset"));
+        assertFalse(containerService.isEventStreamLive("local"));
+
+        for (int i = 0; i < 100 && eventSource.subscriptions.size() < 2; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(2, eventSource.subscriptions.size());
+        assertNotNull(eventSource.sinceValues.get(1));
+        assertTrue(containerService.isEventStreamLive("local"));
+    }
+
+    // Stands in for the Docker daemon, events are pushed by the test
+    private static class FakeEventSource implements DockerEventSource {
+
+        private final List<ResultCallback<Event>> subscriptions = new CopyOnWriteArrayList<>();
+        private final List<Long> sinceValues = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void subscribe(Long since, ResultCallback<Event> callback) {
+            sinceValues.add(since);
+            subscriptions.add(callback);
+            callback.onStart(() -> { });
+        }
+
+        ResultCallback<Event> latest() {
+            return subscriptions.get(subscriptions.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.ellipsis.homelabmonitor.docker;
+
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import com.ellipsis.homelabmonitor.model.ContainerMetrics;
+import com.ellipsis.homelabmonitor.repository.ContainerMetricsStore;
+import com.ellipsis.homelabmonitor.service.ContainerSnapshotCache;
+import com.ellipsis.homelabmonitor.service.RecentMetricsBuffer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Statistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ContainerStatsCollectorTest {
+
+    // Trimmed frame from a cgroup v2 host
+    private static final String FRAME = """
+            {
+              "read": "2026-03-14T15:09:27.000000000Z",
+              "cpu_stats": {"cpu_usage": {"total_usage": 2600000000}, "system_cpu_usage": 20400000000, "online_cpus": 4},
+              "precpu_stats": {"cpu_usage": {"total_usage": 2500000000}, "system_cpu_usage": 20000000000, "online_cpus": 4},
+              "memory_stats": {"usage": 300000000, "limit": 8000000000, "stats": {"inactive_file": 50000000}},
+              "networks": {"eth0": {"rx_bytes": 1000, "tx_bytes": 200}, "eth1": {"rx_bytes": 24, "tx_bytes": 6}},
+              "blkio_stats": {"io_service_bytes_recursive": [
+                {"major": 179, "minor": 0, "op": "read", "value": 4096},
+                {"major": 179, "minor": 0, "op": "write", "value": 8192}
+              ]}
+            }
+            """;
+
+    private final FakeStatsSource statsSource = new FakeStatsSource();
+    private final ContainerSnapshotCache snapshotCache = new ContainerSnapshotCache(60000);
+    private final ContainerMetricsStore metricsStore = mock(ContainerMetricsStore.class);
+    private final ContainerStatsCollector collector = new ContainerStatsCollector(
+            new DockerEndpoints(List.of(new DockerEndpoint("pi-1", mock(DockerClient.class), mock(DockerClient.class),
+                    Duration.ofSeconds(1), Duration.ofSeconds(30), new CircuitBreaker(3, Duration.ofMinutes(1))))),
+            statsSource, snapshotCache, metricsStore, mock(RecentMetricsBuffer.class), new SimpleMeterRegistry(), true, 30000);
+
+    @AfterEach
+    void tearDown() {
+        collector.stop();
+    }
+
+    private static Statistics frame() throws Exception {
+        return new ObjectMapper().readValue(FRAME, Statistics.class);
+    }
+
+    private static ContainerInfo container(String id, String name, String status) {
+        return ContainerInfo.builder().host("pi-1").id(id).name(name).status(status)
+                .checkedAt(LocalDateTime.now()).build();
+    }
+
+    @Test
+    void computesUsageLikeDockerStats() throws Exception {
+        ContainerMetrics m = ContainerStatsCollector.toMetrics("pi-1", "3f2a9c81d0e4", "jellyfin",
+                LocalDateTime.now(), frame());
+
+        // 0.1s of 0.4s system time over 4 cores
+        assertEquals(100.0, m.cpuPercent(), 1e-9);
+        assertEquals(250_000_000, m.memoryBytes());
+        assertEquals(8_000_000_000L, m.memoryLimitBytes());
+        assertEquals(1024, m.networkRxBytes());
+        assertEquals(206, m.networkTxBytes());
+        assertEquals(4096, m.blockReadBytes());
+        assertEquals(8192, m.blockWriteBytes());
+    }
+
+    @Test
+    void streamsEveryRunningContainerAndWritesEachSampleOnce() throws Exception {
+        snapshotCache.publish(List.of(container("aaa", "jellyfin", "Up 2 hours"),
+                container("bbb", "pihole", "Up 3 days"), container("ccc", "backup", "Exited (0) 1 hour ago")));
+
+        collector.sync();
+        assertEquals(Set.of("aaa", "bbb"), statsSource.callbacks.keySet());
+
+        statsSource.callbacks.get("aaa").onNext(frame());
+        statsSource.callbacks.get("bbb").onNext(frame());
+        collector.flush();
+        collector.flush();
+        verify(metricsStore, times(1)).append(argThat(samples -> samples.size() == 2));
+        assertEquals(List.of("jellyfin", "pihole"),
+                collector.latest(null).stream().map(ContainerMetrics::containerName).toList());
+
+        // pihole stops: its stream is closed and it drops out of the latest values
+        snapshotCache.publish(List.of(container("aaa", "jellyfin", "Up 2 hours"),
+                container("bbb", "pihole", "Exited (137) 1 second ago")));
+        collector.sync();
+        assertEquals(List.of("jellyfin"),
+                collector.latest("pi-1").stream().map(ContainerMetrics::containerName).toList());
+    }
+
+    private static class FakeStatsSource implements DockerStatsSource {
+        final Map<String, ResultCallback<Statistics>> callbacks = new ConcurrentHashMap<>();
+
+        @Override
+        public void subscribe(DockerEndpoint endpoint, String containerId, ResultCallback<Statistics> callback) {
+            callbacks.put(containerId, callback);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.ellipsis.homelabmonitor.docker;
+
+import com.github.dockerjava.api.DockerClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DockerEndpointTest {
+
+    private final CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofMinutes(1));
+    private final DockerEndpoint endpoint = new DockerEndpoint("pi-1", mock(DockerClient.class),
+            mock(DockerClient.class), Duration.ofMillis(100), Duration.ofMillis(500), breaker);
+
+    @AfterEach
+    void tearDown() throws IOException {
+        endpoint.close();
+    }
+
+    private static String sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+
+    @Test
+    void callsTimingOutCountAsFailuresAndOpenTheCircuit() {
+        for (int i = 0; i < 2; i++) {
+            CompletionException e = assertThrows(CompletionException.class,
+                    () -> endpoint.call(client -> sleep(300)).join());
+            assertInstanceOf(TimeoutException.class, e.getCause());
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, endpoint.getBreakerState());
+        assertThrows(CompletionException.class, () -> endpoint.call(client -> "listed").join());
+    }
+
+    @Test
+    void actionsGetTheirOwnTimeoutAndNeverTripTheBreaker() {
+        // Longer than a list call may take, within the action timeout
+        assertEquals("done", endpoint.act(client -> sleep(300)).join());
+
+        for (int i = 0; i < 3; i++) {
+            CompletionException e = assertThrows(CompletionException.class,
+                    () -> endpoint.act(client -> sleep(800)).join());
+            assertInstanceOf(TimeoutException.class, e.getCause());
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, endpoint.getBreakerState());
+    }
+
+    @Test
+    void actionsFailFastWhileTheCircuitIsOpen() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> endpoint.act(client -> "restarted").join());
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+}
@@ -0,0 +1,110 @@
+package com.ellipsis.homelabmonitor.event;
+
+import com.ellipsis.homelabmonitor.model.ContainerState;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContainerEventCodecTest {
+
+    @Test
+    void roundTripsKnownTypesAndStatuses() {
+        ContainerEvent event = ContainerEvent.builder()
+                .host("pi-1")
+                .containerId("3f2a9c81d0e4")
+                .containerName("jellyfin")
+                .previousStatus(ContainerState.RUNNING)
+                .currentStatus(ContainerState.EXITED)
+                .occurredAt(LocalDateTime.of(2026, 3, 14, 15, 9, 26, 535_897_000))
+                .eventType("CONTAINER_DOWN")
+                .build();
+
+        byte[] encoded = ContainerEventCodec.encode(event);
+
+        assertEquals(event, ContainerEventCodec.decode(encoded));
+        // 1 version + 3 codes + 8 time + (1+4) + (1+12) + (1+8)
+        assertEquals(39, encoded.length);
+    }
+
+    @Test
+    void keepsUnknownValuesAndNulls() {
+        ContainerEvent event = ContainerEvent.builder()
+                .containerName("pihole")
+                .previousStatus(null)
+                .currentStatus(ContainerState.UNKNOWN)
+                .eventType("CONTAINER_REMOVED")
+                .build();
+
+        assertEquals(event, ContainerEventCodec.decode(ContainerEventCodec.encode(event)));
+    }
+
+    @Test
+    void rejectsCodesOutsideTheTablesWithTheirOffset() {
+        byte[] encoded = ContainerEventCodec.encode(ContainerEvent.builder()
+                .eventType("CONTAINER_UP").previousStatus(ContainerState.EXITED).currentStatus(ContainerState.RUNNING)
+                .build());
+
+        byte[] badType = encoded.clone();
+        badType[1] = (byte) 200;
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ContainerEventCodec.decode(badType));
+        assertEquals("Unknown event type code 200 at offset 1 of ContainerEvent", e.getMessage());
+
+        byte[] badStatus = encoded.clone();
+        badStatus[3] = 9;
+        e = assertThrows(IllegalArgumentException.class, () -> ContainerEventCodec.decode(badStatus));
+        assertEquals("Unknown status code 9 at offset 3 of ContainerEvent", e.getMessage());
+    }
+
+    @Test
+    void decodesVersionOneRecords() {
+        // Written by the version 1 encoder: CONTAINER_DOWN, running (0) -> exited (1),
+        // 2026-03-14T15:09:26.535897, "pi-1", "3f2a", "web"
+        byte[] v1 = {
+                1, 0, 0, 1,
+                0x00, 0x06, 0x4C, (byte) 0xFD, 0x5F, 0x1E, (byte) 0x82, (byte) 0xD9,
+                5, 'p', 'i', '-', '1', 5, '3', 'f', '2', 'a', 4, 'w', 'e', 'b'};
+
+        ContainerEvent event = ContainerEventCodec.decode(v1);
+
+        assertEquals("CONTAINER_DOWN", event.getEventType());
+        assertEquals(ContainerState.RUNNING, event.getPreviousStatus());
+        assertEquals(ContainerState.EXITED, event.getCurrentStatus());
+        assertEquals(LocalDateTime.of(2026, 3, 14, 15, 9, 26, 535_897_000), event.getOccurredAt());
+        assertEquals("pi-1", event.getHost());
+        assertEquals("3f2a", event.getContainerId());
+        assertEquals("web", event.getContainerName());
+    }
+
+    @Test
+    void decodesVersionOneLiteralAndHighStatusCodes() {
+        // paused (2) -> literal "restarting", unknown (3) -> literal null, no time, null strings
+        byte[] restarting = {1, 2, 2, (byte) 0xFF, 11, 'r', 'e', 's', 't', 'a', 'r', 't', 'i', 'n', 'g',
+                (byte) 0x80, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+        byte[] vanished = {1, 3, 3, (byte) 0xFF, 0, (byte) 0x80, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+
+        ContainerEvent first = ContainerEventCodec.decode(restarting);
+        assertEquals("CONTAINER_RESTARTED", first.getEventType());
+        assertEquals(ContainerState.PAUSED, first.getPreviousStatus());
+        assertEquals(ContainerState.RUNNING, first.getCurrentStatus());
+        assertNull(first.getOccurredAt());
+        assertNull(first.getHost());
+
+        ContainerEvent second = ContainerEventCodec.decode(vanished);
+        assertEquals("CONTAINER_STOPPED", second.getEventType());
+        assertEquals(ContainerState.UNKNOWN, second.getPreviousStatus());
+        assertNull(second.getCurrentStatus());
+    }
+
+    @Test
+    void writesVersionTwo() {
+        assertEquals(2, ContainerEventCodec.encode(ContainerEvent.builder().build())[0]);
+    }
+
+    @Test
+    void rejectsUnknownVersion() {
+        assertThrows(IllegalArgumentException.class, () -> ContainerEventCodec.decode(new byte[]{9, 0, 0, 0}));
+    }
+}
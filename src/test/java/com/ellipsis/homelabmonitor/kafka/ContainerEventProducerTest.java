@@ -0,0 +1,111 @@
+package com.ellipsis.homelabmonitor.kafka;
+
+import com.ellipsis.homelabmonitor.event.ContainerEvent;
+import com.ellipsis.homelabmonitor.repository.EventOutboxStore;
+import com.ellipsis.homelabmonitor.service.SnapshotWriteBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaProducerException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ContainerEventProducerTest {
+
+    private static final String TOPIC = "container-events";
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, ContainerEvent> kafkaTemplate = mock(KafkaTemplate.class);
+    private final EventOutboxStore outboxStore = mock(EventOutboxStore.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ContainerEventProducer producer = new ContainerEventProducer(kafkaTemplate,
+            mock(SnapshotWriteBuffer.class), outboxStore, registry, 500, 60_000, 3);
+
+    private static EventOutboxStore.Entry entry(long id) {
+        return new EventOutboxStore.Entry(id, ContainerEvent.builder().host("pi-1").containerName("c-" + id).build());
+    }
+
+    private static CompletableFuture<SendResult<String, ContainerEvent>> acked() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static CompletableFuture<SendResult<String, ContainerEvent>> failed(Exception cause) {
+        return CompletableFuture.failedFuture(new KafkaProducerException(null, "Send failed", cause));
+    }
+
+    private void outbox(long... ids) {
+        when(outboxStore.next(500))
+                .thenReturn(Arrays.stream(ids).mapToObj(ContainerEventProducerTest::entry).toList());
+    }
+
+    private void send(long id, CompletableFuture<SendResult<String, ContainerEvent>> result) {
+        when(kafkaTemplate.send(eq(TOPIC), eq("c-" + id), any())).thenReturn(result);
+    }
+
+    @Test
+    void deletesOnlyTheAcknowledgedPrefix() {
+        outbox(1, 2, 3);
+        send(1, acked());
+        send(2, failed(new TimeoutException("expired")));
+        send(3, acked());
+
+        assertEquals(1, producer.relayBatch());
+
+        verify(outboxStore).delete(List.of(1L));
+        // The broker timing out isn't the row's fault
+        verify(outboxStore, never()).recordFailure(anyLong(), any());
+    }
+
+    @Test
+    void brokerDownKeepsEverythingWithoutCountingAttempts() {
+        outbox(1, 2);
+        send(1, failed(new TimeoutException("expired")));
+        send(2, failed(new TimeoutException("expired")));
+        doThrow(new TimeoutException("flush timed out")).when(kafkaTemplate).flush();
+
+        assertEquals(0, producer.relayBatch());
+
+        verify(outboxStore).delete(List.of());
+        verify(outboxStore, never()).recordFailure(anyLong(), any());
+        verify(outboxStore, never()).deadLetter(anyLong());
+    }
+
+    @Test
+    void poisonRowIsCountedAndHoldsTheRestUntilItsLastAttempt() {
+        outbox(1, 2, 3);
+        send(1, acked());
+        when(kafkaTemplate.send(eq(TOPIC), eq("c-2"), any())).thenThrow(new SerializationException("bad event"));
+        send(3, acked());
+        when(outboxStore.recordFailure(eq(2L), any())).thenReturn(1);
+
+        assertEquals(1, producer.relayBatch());
+
+        verify(outboxStore).recordFailure(eq(2L), contains("bad event"));
+        verify(outboxStore, never()).deadLetter(anyLong());
+        verify(outboxStore).delete(List.of(1L));
+    }
+
+    @Test
+    void poisonRowIsDeadLetteredAfterMaxAttemptsAndTheRestGoesOut() {
+        outbox(2, 3);
+        send(2, failed(new RecordTooLargeException("too large")));
+        send(3, acked());
+        when(outboxStore.recordFailure(eq(2L), any())).thenReturn(3);
+
+        assertEquals(1, producer.relayBatch());
+
+        verify(outboxStore).deadLetter(2L);
+        verify(outboxStore).delete(List.of(3L));
+        assertEquals(1.0, registry.counter("monitor.outbox.dead.lettered").count());
+    }
+}
@@ -0,0 +1,111 @@
+package com.ellipsis.homelabmonitor.kafka;
+
+import com.ellipsis.homelabmonitor.event.ContainerEvent;
+import com.ellipsis.homelabmonitor.model.ContainerState;
+import com.ellipsis.homelabmonitor.repository.IncidentStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Events go through a real broker with the binary serializers, the store is mocked. The
+// producer and consumer come from Boot's Kafka auto-configuration over application.properties,
+// so the listener sees the same ErrorHandlingDeserializer setup as the application.
+@SpringJUnitConfig
+@EmbeddedKafka(partitions = 1, topics = "container-events")
+@TestPropertySource(locations = "classpath:application.properties",
+        properties = "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}")
+class IncidentTrackerTest {
+
+    @Configuration
+    @ImportAutoConfiguration(KafkaAutoConfiguration.class)
+    static class Config {
+
+        @Bean
+        IncidentStore incidentStore() {
+            return mock(IncidentStore.class);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        IncidentTracker incidentTracker(IncidentStore incidentStore, MeterRegistry meterRegistry) {
+            return new IncidentTracker(incidentStore, meterRegistry);
+        }
+    }
+
+    @Autowired
+    private IncidentStore incidentStore;
+
+    @Autowired
+    private KafkaTemplate<String, ContainerEvent> kafkaTemplate;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static ContainerEvent event(String type, ContainerState from, ContainerState to, LocalDateTime at) {
+        return ContainerEvent.builder()
+                .host("pi-1")
+                .containerId("3f2a9c81d0e4")
+                .containerName("jellyfin")
+                .previousStatus(from)
+                .currentStatus(to)
+                .eventType(type)
+                .occurredAt(at)
+                .build();
+    }
+
+    @Test
+    void pairsDownAndUpIntoAnIncident() {
+        LocalDateTime down = LocalDateTime.of(2026, 3, 1, 12, 0);
+        LocalDateTime up = down.plusSeconds(90);
+        when(incidentStore.open("pi-1", "jellyfin", down)).thenReturn(true);
+        when(incidentStore.close("pi-1", "jellyfin", up)).thenReturn(Optional.of(Duration.ofSeconds(90)));
+
+        // An unknown encoding version ahead of the real events is logged and skipped, not retried
+        // forever. Sent through a local template, a second KafkaTemplate bean would replace Boot's.
+        KafkaTemplate<String, byte[]> rawTemplate = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()),
+                new StringSerializer(), new ByteArraySerializer()));
+        rawTemplate.send("container-events", "jellyfin", new byte[]{9, 0, 0, 0});
+        kafkaTemplate.send("container-events", "jellyfin", event("CONTAINER_DOWN", ContainerState.RUNNING, ContainerState.EXITED, down));
+        kafkaTemplate.send("container-events", "jellyfin", event("CONTAINER_RESTARTED", ContainerState.RUNNING, ContainerState.RUNNING, up));
+        kafkaTemplate.send("container-events", "jellyfin", event("CONTAINER_UP", ContainerState.EXITED, ContainerState.RUNNING, up));
+
+        await().atMost(Duration.ofSeconds(30)).untilAsserted(() ->
+                assertEquals(1, meterRegistry.timer("monitor.incidents.duration").count()));
+        verify(incidentStore).open("pi-1", "jellyfin", down);
+        verify(incidentStore).close("pi-1", "jellyfin", up);
+        verifyNoMoreInteractions(incidentStore);
+        assertEquals(90, meterRegistry.timer("monitor.incidents.duration").totalTime(TimeUnit.SECONDS));
+    }
+}
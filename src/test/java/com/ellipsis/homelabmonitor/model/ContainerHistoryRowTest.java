@@ -0,0 +1,27 @@
+package com.ellipsis.homelabmonitor.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContainerHistoryRowTest {
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void serializesTheSameAsContainerInfo() throws Exception {
+        LocalDateTime at = LocalDateTime.of(2026, 3, 1, 12, 0);
+        // A row from before the state column, state comes from the status text on both sides
+        ContainerInfo info = ContainerInfo.builder().dbID(7L).host("pi-1").id("abc").name("web")
+                .status("Exited (1) 2 minutes ago").image("nginx").checkedAt(at).build();
+        ContainerHistoryRow row = new ContainerHistoryRow(7L, "pi-1", "abc", "web",
+                "Exited (1) 2 minutes ago", "nginx", at, null);
+
+        assertEquals(ContainerState.EXITED, row.state());
+        assertEquals(mapper.readTree(mapper.writeValueAsString(info)), mapper.readTree(mapper.writeValueAsString(row)));
+    }
+}
@@ -0,0 +1,30 @@
+package com.ellipsis.homelabmonitor.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContainerStateTest {
+
+    @Test
+    void parsesDockerStatusText() {
+        assertEquals(ContainerState.RUNNING, ContainerState.parse("Up 2 hours"));
+        assertEquals(ContainerState.RUNNING, ContainerState.parse("Up 3 days (Paused)"));
+        assertEquals(ContainerState.RUNNING, ContainerState.parse("Restarting (1) 5 seconds ago"));
+        assertEquals(ContainerState.EXITED, ContainerState.parse("Exited (137) 4 minutes ago"));
+        assertEquals(ContainerState.PAUSED, ContainerState.parse("PAUSED"));
+        assertEquals(ContainerState.UNKNOWN, ContainerState.parse("Created"));
+        assertEquals(ContainerState.UNKNOWN, ContainerState.parse("U"));
+        assertEquals(ContainerState.UNKNOWN, ContainerState.parse(""));
+        assertEquals(ContainerState.UNKNOWN, ContainerState.parse(null));
+    }
+
+    @Test
+    void labelsAndCodesRoundTrip() {
+        for (ContainerState state : ContainerState.values()) {
+            assertEquals(state, ContainerState.parse(state.label()));
+            assertEquals(state, ContainerState.fromCode(state.code()));
+        }
+        assertEquals(ContainerState.UNKNOWN, ContainerState.fromCode(42));
+    }
+}
@@ -0,0 +1,74 @@
+package com.ellipsis.homelabmonitor.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Upgrades a database left by the first release, whose schema Hibernate created with
+// ddl-auto=update before multi-host polling, by running the migrations the way the
+// application does (baselined at version 0). Skipped when Docker isn't available.
+@Testcontainers(disabledWithoutDocker = true)
+class BaselineUpgradeMigrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Test
+    void migratesBaselineSchemaWithRows() {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword(), true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // The tables as the first release's entities produced them, no host column
+        jdbcTemplate.execute("CREATE TABLE container_info (db_id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "id varchar(255), name varchar(255), status varchar(255), image varchar(255), checked_at timestamp(6))");
+        jdbcTemplate.execute("CREATE TABLE daily_report (id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "container_name varchar(255), report_date date, total_snapshots integer NOT NULL, "
+                + "running_snapshots integer NOT NULL, uptime_percentage float(53) NOT NULL, "
+                + "incident_count integer NOT NULL, generated_at timestamp(6))");
+        jdbcTemplate.execute("CREATE TABLE monthly_report (id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "container_name varchar(255), report_month integer NOT NULL, report_year integer NOT NULL, "
+                + "average_uptime_percentage float(53) NOT NULL, total_incidents integer NOT NULL, "
+                + "days_with_incidents integer NOT NULL, total_days_reported integer NOT NULL, generated_at timestamp(6))");
+
+        LocalDateTime yesterday = LocalDate.now().minusDays(1).atTime(12, 0);
+        jdbcTemplate.update("INSERT INTO container_info (id, name, status, image, checked_at) VALUES "
+                + "('a1', 'jellyfin', 'Up 2 hours', 'jellyfin:latest', ?), "
+                + "('a1', 'jellyfin', 'Exited (1) 1 minute ago', 'jellyfin:latest', ?)",
+                yesterday, yesterday.plusMinutes(1));
+        jdbcTemplate.update("INSERT INTO daily_report (container_name, report_date, total_snapshots, "
+                + "running_snapshots, uptime_percentage, incident_count, generated_at) "
+                + "VALUES ('jellyfin', ?, 2, 1, 50.0, 1, ?)", yesterday.toLocalDate(), yesterday);
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM container_info WHERE host = 'local'", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM container_info WHERE state = 2", Integer.class));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM container_info_p" + yesterday.toLocalDate().toString().replace("-", ""),
+                Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM daily_report", Integer.class));
+
+        // New rows continue after the migrated IDs
+        jdbcTemplate.update("INSERT INTO container_info (host, id, name, status, image, checked_at, state) "
+                + "VALUES ('local', 'a1', 'jellyfin', 'Up 1 second', 'jellyfin:latest', ?, 1)", LocalDateTime.now());
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT count(DISTINCT db_id) FROM container_info", Integer.class));
+    }
+}
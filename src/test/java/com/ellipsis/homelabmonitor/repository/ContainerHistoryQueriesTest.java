@@ -0,0 +1,98 @@
+package com.ellipsis.homelabmonitor.repository;
+
+import com.ellipsis.homelabmonitor.repository.ContainerHistoryQueries.Cursor;
+import com.ellipsis.homelabmonitor.repository.ContainerHistoryQueries.Page;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContainerHistoryQueriesTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private ContainerHistoryQueries queries;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE container_info ("
+                + "db_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "host VARCHAR(255), id VARCHAR(255), name VARCHAR(255), "
+                + "status VARCHAR(255), image VARCHAR(255), checked_at TIMESTAMP(6), state SMALLINT)");
+        queries = new ContainerHistoryQueries(jdbcTemplate, dataSource,
+                new DataSourceTransactionManager(dataSource), "snapshot", 2);
+    }
+
+    private void insert(String name, LocalDateTime checkedAt) {
+        jdbcTemplate.update("INSERT INTO container_info (host, id, name, status, image, checked_at, state) "
+                + "VALUES ('pi-1', ?, ?, 'Up 1 hour', 'nginx', ?, 1)", name, name, checkedAt);
+    }
+
+    @Test
+    void cursorSurvivesEncodeAndDecode() {
+        Cursor cursor = new Cursor(LocalDateTime.of(2026, 3, 1, 12, 0, 30, 123_456_000), 42);
+
+        String encoded = cursor.encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"), "URL-safe without padding: " + encoded);
+        assertEquals(cursor, Cursor.decode(encoded));
+    }
+
+    @Test
+    void tamperedOrInvalidCursorsAreRejected() {
+        String valid = new Cursor(T0, 42).encode();
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2026-03-01T12:00_abc".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of("not a cursor", valid.substring(0, valid.length() - 3), forged,
+                Base64.getUrlEncoder().encodeToString("no separator".getBytes(StandardCharsets.UTF_8)), "")) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Cursor.decode(cursor),
+                    "accepted " + cursor);
+            assertTrue(e.getMessage().startsWith("Invalid cursor"));
+        }
+    }
+
+    @Test
+    void pagesAcrossRowsWithTheSameCheckedAtWithoutSkipsOrRepeats() {
+        // One poll writes every container with the same checked_at, pages must split inside it
+        for (int i = 0; i < 5; i++) insert("c-" + i, T0);
+        insert("c-0", T0.plusSeconds(30));
+
+        List<Long> seen = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        Cursor after = null;
+        do {
+            Page page = queries.page(T0.minusSeconds(1), null, null, after, 2);
+            sizes.add(page.items().size());
+            page.items().forEach(c -> seen.add(c.getDbID()));
+            after = page.next() == null ? null : Cursor.decode(page.next().encode());
+        } while (after != null);
+
+        assertEquals(List.of(2, 2, 2, 0), sizes);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), seen);
+    }
+
+    @Test
+    void streamHandsOverEveryRowInOrder() {
+        for (int i = 0; i < 5; i++) insert("c-" + i, T0.plusSeconds(i % 2));
+
+        List<String> names = new ArrayList<>();
+        queries.stream(T0.minusSeconds(1), "pi-1", null, c -> names.add(c.getName()));
+
+        assertEquals(List.of("c-0", "c-2", "c-4", "c-1", "c-3"), names);
+    }
+}
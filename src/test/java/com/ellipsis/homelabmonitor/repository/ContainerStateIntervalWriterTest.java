@@ -0,0 +1,86 @@
+package com.ellipsis.homelabmonitor.repository;
+
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import com.ellipsis.homelabmonitor.model.ContainerState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ContainerStateIntervalWriterTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private ContainerStateIntervalWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE container_state_interval ("
+                + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, host VARCHAR(255), "
+                + "container_id VARCHAR(255), container_name VARCHAR(255), image VARCHAR(255), "
+                + "status VARCHAR(255), valid_from TIMESTAMP(6), valid_to TIMESTAMP(6))");
+        writer = new ContainerStateIntervalWriter(jdbcTemplate, mock(EventOutboxStore.class),
+                new DataSourceTransactionManager(dataSource), 120_000);
+    }
+
+    private static ContainerInfo poll(ContainerState state, LocalDateTime at) {
+        return ContainerInfo.builder().host("pi-1").id("abc123").name("jellyfin").image("jellyfin")
+                .status(state.label()).state(state).checkedAt(at).build();
+    }
+
+    private List<Map<String, Object>> intervals() {
+        return jdbcTemplate.queryForList(
+                "SELECT status, valid_from, valid_to FROM container_state_interval ORDER BY valid_from");
+    }
+
+    @Test
+    void unchangedStateExtendsTheOpenInterval() {
+        writer.write(List.of(poll(ContainerState.RUNNING, T0)));
+        writer.write(List.of(poll(ContainerState.RUNNING, T0.plusSeconds(30))));
+        writer.write(List.of(poll(ContainerState.RUNNING, T0.plusSeconds(60))));
+
+        List<Map<String, Object>> rows = intervals();
+        assertEquals(1, rows.size());
+        assertEquals(T0, ((Timestamp) rows.get(0).get("valid_from")).toLocalDateTime());
+        assertEquals(T0.plusSeconds(60), ((Timestamp) rows.get(0).get("valid_to")).toLocalDateTime());
+    }
+
+    @Test
+    void stateChangeClosesTheIntervalAtTheChangeAndOpensANewOne() {
+        writer.write(List.of(poll(ContainerState.RUNNING, T0)));
+        writer.write(List.of(poll(ContainerState.EXITED, T0.plusSeconds(30))));
+
+        List<Map<String, Object>> rows = intervals();
+        assertEquals(2, rows.size());
+        assertEquals("running", rows.get(0).get("status"));
+        assertEquals(T0.plusSeconds(30), ((Timestamp) rows.get(0).get("valid_to")).toLocalDateTime());
+        assertEquals("exited", rows.get(1).get("status"));
+        assertEquals(T0.plusSeconds(30), ((Timestamp) rows.get(1).get("valid_from")).toLocalDateTime());
+    }
+
+    @Test
+    void gapLongerThanTheThresholdStartsANewIntervalWithoutBridgingIt() {
+        writer.write(List.of(poll(ContainerState.RUNNING, T0)));
+        writer.write(List.of(poll(ContainerState.RUNNING, T0.plusMinutes(10))));
+
+        List<Map<String, Object>> rows = intervals();
+        assertEquals(2, rows.size());
+        // The first interval is not stretched over the time nobody was watching
+        assertEquals(T0, ((Timestamp) rows.get(0).get("valid_to")).toLocalDateTime());
+        assertEquals(T0.plusMinutes(10), ((Timestamp) rows.get(1).get("valid_from")).toLocalDateTime());
+    }
+}
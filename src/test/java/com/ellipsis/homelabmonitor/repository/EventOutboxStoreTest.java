@@ -0,0 +1,63 @@
+package com.ellipsis.homelabmonitor.repository;
+
+import com.ellipsis.homelabmonitor.event.ContainerEvent;
+import com.ellipsis.homelabmonitor.model.ContainerState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventOutboxStoreTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private EventOutboxStore store;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        String columns = "host VARCHAR(255), container_id VARCHAR(255), container_name VARCHAR(255), "
+                + "previous_status VARCHAR(255), current_status VARCHAR(255), event_type VARCHAR(255), "
+                + "occurred_at TIMESTAMP(6), ";
+        jdbcTemplate.execute("CREATE TABLE event_outbox (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + columns + "created_at TIMESTAMP(6) NOT NULL DEFAULT now(), "
+                + "attempts INT NOT NULL DEFAULT 0, last_error VARCHAR(1000))");
+        jdbcTemplate.execute("CREATE TABLE event_outbox_dead_letter (id BIGINT PRIMARY KEY, " + columns
+                + "created_at TIMESTAMP(6) NOT NULL, attempts INT NOT NULL, last_error VARCHAR(1000), "
+                + "failed_at TIMESTAMP(6) NOT NULL DEFAULT now())");
+        store = new EventOutboxStore(jdbcTemplate);
+    }
+
+    @Test
+    void failuresAreCountedAndDeadLetteredRowsLeaveTheOutbox() {
+        store.append(List.of(
+                ContainerEvent.builder().host("pi-1").containerId("a").containerName("web")
+                        .previousStatus(ContainerState.RUNNING).currentStatus(ContainerState.EXITED)
+                        .eventType("CONTAINER_DOWN").occurredAt(LocalDateTime.of(2026, 3, 1, 12, 0)).build(),
+                ContainerEvent.builder().host("pi-1").containerId("b").containerName("db")
+                        .eventType("CONTAINER_UP").occurredAt(LocalDateTime.of(2026, 3, 1, 12, 1)).build()));
+        long poison = store.next(10).get(0).id();
+
+        assertEquals(1, store.recordFailure(poison, "first"));
+        assertEquals(2, store.recordFailure(poison, "x".repeat(2000)));
+        store.deadLetter(poison);
+
+        List<EventOutboxStore.Entry> left = store.next(10);
+        assertEquals(1, left.size());
+        assertEquals("db", left.get(0).event().getContainerName());
+
+        Map<String, Object> dead = jdbcTemplate.queryForMap("SELECT * FROM event_outbox_dead_letter");
+        assertEquals(poison, ((Number) dead.get("ID")).longValue());
+        assertEquals("web", dead.get("CONTAINER_NAME"));
+        assertEquals(2, dead.get("ATTEMPTS"));
+        assertEquals(1000, ((String) dead.get("LAST_ERROR")).length());
+    }
+}
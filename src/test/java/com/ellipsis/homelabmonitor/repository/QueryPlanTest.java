@@ -0,0 +1,78 @@
+package com.ellipsis.homelabmonitor.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Set;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the Flyway migrations on a real PostgreSQL and checks that the finder queries can be
+// answered from an index. Sequential scans are disabled for the session, so any plan that
+// still contains one has no usable index. Skipped when Docker isn't available.
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .load()
+                .migrate();
+
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword(), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("SET enable_seqscan = off");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "SELECT * FROM container_info WHERE checked_at > now() - interval '1 day'",
+            "SELECT * FROM container_info WHERE name = 'web' AND checked_at > now() - interval '1 day'",
+            "SELECT * FROM container_info WHERE host = 'pi-1' AND checked_at > now() - interval '1 day'",
+            "SELECT * FROM container_info WHERE checked_at >= current_date AND checked_at < current_date + 1",
+            "SELECT * FROM container_state_interval WHERE valid_to >= now() - interval '1 day'",
+            "SELECT * FROM container_state_interval WHERE container_name = 'web' AND valid_to >= now() - interval '1 day'",
+            "SELECT * FROM daily_report WHERE report_date = current_date",
+            "SELECT * FROM daily_report WHERE report_date BETWEEN current_date - 30 AND current_date",
+            "SELECT * FROM daily_report WHERE container_name = 'web' AND report_date BETWEEN current_date - 30 AND current_date",
+            "SELECT * FROM monthly_report WHERE report_month = 1 AND report_year = 2026",
+            "SELECT * FROM monthly_report WHERE report_year = 2026 ORDER BY report_month",
+            "SELECT * FROM monthly_report WHERE container_name = 'web' ORDER BY report_year, report_month"
+    })
+    void finderIsServedByAnIndex(String query) {
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + query, String.class);
+        assertTrue(plan.stream().noneMatch(line -> line.contains("Seq Scan")),
+                () -> query + "\n" + String.join("\n", plan));
+    }
+
+    @Test
+    void dayRangeIsPrunedToOnePartition() {
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN SELECT * FROM container_info "
+                + "WHERE checked_at >= current_date AND checked_at < current_date + 1", String.class);
+
+        Pattern partition = Pattern.compile("container_info_(p\\d{8}|default)\\b");
+        Set<String> scanned = plan.stream()
+                .flatMap(line -> partition.matcher(line).results().map(MatchResult::group))
+                .collect(Collectors.toSet());
+        assertEquals(1, scanned.size(), () -> String.join("\n", plan));
+    }
+}
@@ -0,0 +1,66 @@
+package com.ellipsis.homelabmonitor.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportWriterTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+    private JdbcTemplate jdbcTemplate;
+    private ReportWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE daily_report (container_name VARCHAR(255), report_date DATE)");
+        jdbcTemplate.execute("CREATE TABLE monthly_report (container_name VARCHAR(255), "
+                + "report_year INT, report_month INT)");
+        writer = new ReportWriter(jdbcTemplate, 500);
+
+        for (String name : List.of("a", "c", "e", "g")) {
+            jdbcTemplate.update("INSERT INTO daily_report VALUES (?, ?)", name, DAY);
+            jdbcTemplate.update("INSERT INTO daily_report VALUES (?, ?)", name, DAY.minusDays(1));
+            jdbcTemplate.update("INSERT INTO monthly_report VALUES (?, 2026, 3)", name);
+        }
+    }
+
+    private List<String> daily(LocalDate day) {
+        return jdbcTemplate.queryForList("SELECT container_name FROM daily_report WHERE report_date = ? "
+                + "ORDER BY container_name", String.class, day);
+    }
+
+    @Test
+    void deletesOnlyUnkeptReportsOfThatDayInsideTheRange() {
+        assertEquals(1, writer.deleteDailyExcept(DAY, "b", "f", List.of("e")));
+
+        assertEquals(List.of("a", "e", "g"), daily(DAY));
+        assertEquals(List.of("a", "c", "e", "g"), daily(DAY.minusDays(1)));
+    }
+
+    @Test
+    void openBoundsCoverEveryName() {
+        assertEquals(2, writer.deleteDailyExcept(DAY, null, null, List.of("c", "e")));
+        assertEquals(List.of("c", "e"), daily(DAY));
+
+        assertEquals(3, writer.deleteMonthlyExcept(YearMonth.of(2026, 3), null, "z", List.of("g")));
+        assertEquals(List.of("g"), jdbcTemplate.queryForList("SELECT container_name FROM monthly_report", String.class));
+    }
+
+    @Test
+    void emptyRunDeletesNothing() {
+        assertEquals(0, writer.deleteDailyExcept(DAY, null, null, List.of()));
+        assertEquals(4, daily(DAY).size());
+    }
+}
@@ -0,0 +1,43 @@
+package com.ellipsis.homelabmonitor.service;
+
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import com.ellipsis.homelabmonitor.model.ContainerState;
+import com.ellipsis.homelabmonitor.model.DailyReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ContainerGaugesTest {
+
+    private static ContainerInfo container(String name, ContainerState state) {
+        return ContainerInfo.builder().host("local").name(name).state(state).build();
+    }
+
+    @Test
+    void gaugesFollowTheSnapshotAndDropRemovedContainers() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ContainerSnapshotCache snapshotCache = new ContainerSnapshotCache(60000);
+        LiveUptimeTracker uptimeTracker = mock(LiveUptimeTracker.class);
+        when(uptimeTracker.today()).thenReturn(List.of(
+                DailyReport.builder().containerName("jellyfin").uptimePercentage(99.5).build()));
+        ContainerGauges gauges = new ContainerGauges(snapshotCache, uptimeTracker, registry);
+
+        snapshotCache.publish(List.of(container("jellyfin", ContainerState.RUNNING),
+                container("sonarr", ContainerState.EXITED)));
+        gauges.refresh();
+
+        assertEquals(1, registry.get("monitor.container.state").tags("name", "jellyfin").gauge().value());
+        assertEquals(2, registry.get("monitor.container.state").tags("name", "sonarr").gauge().value());
+        assertEquals(99.5, registry.get("monitor.container.uptime.today").tags("name", "jellyfin").gauge().value());
+
+        snapshotCache.publish(List.of(container("jellyfin", ContainerState.PAUSED)));
+        gauges.refresh();
+
+        assertEquals(3, registry.get("monitor.container.state").tags("name", "jellyfin").gauge().value());
+        assertNull(registry.find("monitor.container.state").tags("name", "sonarr").gauge());
+    }
+}
@@ -0,0 +1,96 @@
+package com.ellipsis.homelabmonitor.service;
+
+import com.ellipsis.homelabmonitor.repository.ContainerRepository;
+import com.ellipsis.homelabmonitor.repository.ContainerStateIntervalRepository;
+import com.ellipsis.homelabmonitor.repository.SeriesBucket;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ContainerSeriesServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 1, 0, 0);
+    private static final LocalDateTime END = START.plusHours(2);
+
+    private final ContainerRepository containerRepository = mock(ContainerRepository.class);
+    private final ContainerStateIntervalRepository intervalRepository = mock(ContainerStateIntervalRepository.class);
+
+    private static SeriesBucket bucket(long bucket, long observed, long running, long stateChanges) {
+        return new SeriesBucket() {
+            public Long getBucket() { return bucket; }
+            public Long getObserved() { return observed; }
+            public Long getRunning() { return running; }
+            public Long getStateChanges() { return stateChanges; }
+        };
+    }
+
+    // One-minute buckets of 2 polls, down in every seventh bucket with a change on each edge
+    private static List<SeriesBucket> minuteBuckets(int count, long scale) {
+        long first = START.toEpochSecond(ZoneOffset.UTC) / 60;
+        List<SeriesBucket> buckets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boolean down = i % 7 == 3;
+            boolean edge = i % 7 == 3 || i % 7 == 4;
+            buckets.add(bucket(first + i, 2 * scale, down ? 0 : 2 * scale, edge ? 1 : 0));
+        }
+        return buckets;
+    }
+
+    @Test
+    void downsamplingCarriesSamplesAndStateChangesOntoKeptPoints() {
+        when(containerRepository.findSeries("web", null, START, END, 60)).thenReturn(minuteBuckets(120, 1));
+        ContainerSeriesService service = new ContainerSeriesService(containerRepository, intervalRepository,
+                "snapshot", 30_000, 2000);
+
+        List<SeriesPoint> full = service.getSeries(null, "web", START, END, Duration.ofMinutes(1), null);
+        List<SeriesPoint> capped = service.getSeries(null, "web", START, END, Duration.ofMinutes(1), 20);
+
+        assertEquals(120, full.size());
+        assertEquals(20, capped.size());
+        assertEquals(full.get(0).start(), capped.get(0).start());
+        assertEquals(full.get(119).start(), capped.get(19).start());
+        assertEquals(240, capped.stream().mapToLong(SeriesPoint::samples).sum());
+        assertEquals(full.stream().mapToLong(SeriesPoint::stateChanges).sum(),
+                capped.stream().mapToLong(SeriesPoint::stateChanges).sum());
+    }
+
+    @Test
+    void changeLogSlotsAreCarriedTheSameWay() {
+        // Intervals count milliseconds, 2 poll slots of 30s per bucket
+        when(intervalRepository.findSeries("web", null, START, END, 60)).thenReturn(minuteBuckets(120, 30_000));
+        ContainerSeriesService service = new ContainerSeriesService(containerRepository, intervalRepository,
+                "changelog", 30_000, 2000);
+
+        List<SeriesPoint> capped = service.getSeries(null, "web", START, END, Duration.ofMinutes(1), 10);
+
+        assertEquals(10, capped.size());
+        assertEquals(240, capped.stream().mapToLong(SeriesPoint::samples).sum());
+        assertEquals(34, capped.stream().mapToLong(SeriesPoint::stateChanges).sum());
+    }
+
+    @Test
+    void parsesBucketSizes() {
+        assertEquals(Duration.ofSeconds(30), ContainerSeriesService.parseBucket("30s"));
+        assertEquals(Duration.ofMinutes(5), ContainerSeriesService.parseBucket("5m"));
+        assertEquals(Duration.ofHours(1), ContainerSeriesService.parseBucket("1h"));
+        assertEquals(Duration.ofDays(7), ContainerSeriesService.parseBucket("7d"));
+    }
+
+    @Test
+    void rejectsInvalidBucketSizes() {
+        for (String value : Arrays.asList(null, "", "m", "5", "0m", "-1h", "5w", "1.5h", "five m", "5M",
+                "99999999999999999999s", "9223372036854775807d")) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> ContainerSeriesService.parseBucket(value), "accepted " + value);
+            assertEquals("Invalid bucket: " + value, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.ellipsis.homelabmonitor.service;
+
+import com.ellipsis.homelabmonitor.docker.CircuitBreaker;
+import com.ellipsis.homelabmonitor.docker.DockerEndpoint;
+import com.ellipsis.homelabmonitor.docker.DockerEndpoints;
+import com.ellipsis.homelabmonitor.kafka.ContainerEventProducer;
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import com.ellipsis.homelabmonitor.repository.ContainerRepository;
+import com.ellipsis.homelabmonitor.repository.ContainerStateIntervalRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.ListContainersCmd;
+import com.github.dockerjava.api.model.Container;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ContainerServiceTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static Container container(String id, String name) {
+        return MAPPER.convertValue(Map.of(
+                "Id", String.format("%064d", Long.parseLong(id)),
+                "Names", List.of("/" + name),
+                "Image", "image",
+                "Status", "Up 2 hours"), Container.class);
+    }
+
+    private static DockerEndpoint endpoint(String host, ListContainersCmd cmd) {
+        DockerClient client = mock(DockerClient.class);
+        when(client.listContainersCmd()).thenReturn(cmd);
+        when(cmd.withShowAll(true)).thenReturn(cmd);
+        return new DockerEndpoint(host, client, client,
+                Duration.ofSeconds(1), Duration.ofSeconds(30), new CircuitBreaker(10, Duration.ofMinutes(1)));
+    }
+
+    private static ContainerService service(ContainerSnapshotCache cache, DockerEndpoint... endpoints) {
+        return new ContainerService(new DockerEndpoints(List.of(endpoints)),
+                mock(ContainerRepository.class), mock(ContainerStateIntervalRepository.class),
+                mock(SnapshotWriteBuffer.class), mock(LiveUptimeTracker.class), mock(RecentMetricsBuffer.class),
+                mock(ContainerEventProducer.class), cache, new SimpleMeterRegistry(), 300000, "snapshot");
+    }
+
+    @Test
+    void unreachableHostDropsOutAfterMaxStaleness() throws InterruptedException {
+        ListContainersCmd pi1 = mock(ListContainersCmd.class);
+        when(pi1.exec()).thenReturn(List.of(container("1", "jellyfin")));
+        ListContainersCmd pi2 = mock(ListContainersCmd.class);
+        when(pi2.exec()).thenReturn(List.of(container("2", "pihole")))
+                .thenThrow(new RuntimeException("connection refused"));
+
+        ContainerSnapshotCache cache = new ContainerSnapshotCache(200);
+        ContainerService service = service(cache, endpoint("pi-1", pi1), endpoint("pi-2", pi2));
+
+        service.poll();
+        assertEquals(2, cache.current().containers().size());
+
+        // Still within max-staleness, pi-2 keeps its last known containers
+        service.poll();
+        assertEquals(List.of("pi-1", "pi-2"), hosts(cache.current()));
+
+        Thread.sleep(250);
+        service.poll();
+        assertEquals(List.of("pi-1"), hosts(cache.current()));
+    }
+
+    @Test
+    void noSnapshotWhileNoHostHasAnswered() {
+        ListContainersCmd cmd = mock(ListContainersCmd.class);
+        when(cmd.exec()).thenThrow(new RuntimeException("connection refused"));
+        ContainerSnapshotCache cache = new ContainerSnapshotCache(60000);
+        ContainerService service = service(cache, endpoint("pi-1", cmd));
+
+        assertEquals(List.of(), service.poll());
+        assertNull(cache.current());
+        assertNull(service.getCurrentSnapshot());
+    }
+
+    private static List<String> hosts(ContainerSnapshot snapshot) {
+        return snapshot.containers().stream().map(ContainerInfo::getHost).sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,78 @@
+package com.ellipsis.homelabmonitor.service;
+
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContainerSnapshotCacheTest {
+
+    private static ContainerInfo container(String name, String status) {
+        return ContainerInfo.builder()
+                .id(name + "-id")
+                .name(name)
+                .status(status)
+                .image("image")
+                .checkedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void sameContentKeepsVersionAndEtag() {
+        ContainerSnapshotCache cache = new ContainerSnapshotCache(60000);
+
+        ContainerSnapshot first = cache.publish(List.of(container("jellyfin", "Up 2 hours")));
+        ContainerSnapshot second = cache.publish(List.of(container("jellyfin", "Up 2 hours")));
+
+        assertEquals(first.version(), second.version());
+        assertEquals(first.etag(), second.etag());
+        assertSame(second, cache.current());
+    }
+
+    @Test
+    void sameEtagServesTheSameBody() {
+        ContainerSnapshotCache cache = new ContainerSnapshotCache(60000);
+        ContainerInfo polled = container("jellyfin", "Up 2 hours");
+        ContainerInfo repolled = container("jellyfin", "Up 2 hours");
+        repolled.setCheckedAt(polled.getCheckedAt().plusSeconds(30));
+
+        ContainerSnapshot first = cache.publish(List.of(polled));
+        ContainerSnapshot second = cache.publish(List.of(repolled));
+
+        assertEquals(first.etag(), second.etag());
+        assertEquals(polled.getCheckedAt(), second.containers().get(0).getCheckedAt());
+    }
+
+    @Test
+    void changedContentBumpsVersion() {
+        ContainerSnapshotCache cache = new ContainerSnapshotCache(60000);
+
+        ContainerSnapshot first = cache.publish(List.of(container("jellyfin", "Up 2 hours")));
+        ContainerSnapshot second = cache.publish(List.of(container("jellyfin", "Exited (1) 1 second ago")));
+
+        assertEquals(first.version() + 1, second.version());
+        assertNotEquals(first.etag(), second.etag());
+    }
+
+    @Test
+    void snapshotOlderThanMaxStalenessIsNotFresh() throws InterruptedException {
+        ContainerSnapshotCache cache = new ContainerSnapshotCache(0);
+
+        assertFalse(cache.isFresh(null));
+        ContainerSnapshot snapshot = cache.publish(List.of(container("jellyfin", "Up 2 hours")));
+        Thread.sleep(5);
+        assertFalse(cache.isFresh(snapshot));
+    }
+
+    @Test
+    void snapshotIsImmutable() {
+        ContainerSnapshotCache cache = new ContainerSnapshotCache(60000);
+
+        ContainerSnapshot snapshot = cache.publish(List.of(container("jellyfin", "Up 2 hours")));
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.containers().clear());
+    }
+}
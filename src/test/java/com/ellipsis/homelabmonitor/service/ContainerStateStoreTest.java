@@ -0,0 +1,122 @@
+package com.ellipsis.homelabmonitor.service;
+
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import com.ellipsis.homelabmonitor.model.ContainerState;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContainerStateStoreTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private static ContainerInfo container(String id, ContainerState state, LocalDateTime at) {
+        return ContainerInfo.builder().host("pi-1").id(id).name("jellyfin").state(state).checkedAt(at).build();
+    }
+
+    @Test
+    void reportsEachTransitionOnceAndIgnoresStaleObservations() {
+        ContainerStateStore store = new ContainerStateStore();
+
+        assertNull(store.observe(container("a1", ContainerState.RUNNING, T0)));
+        assertNull(store.observe(container("a1", ContainerState.RUNNING, T0.plusSeconds(30))));
+
+        ContainerStateStore.Transition down = store.observe(container("a1", ContainerState.EXITED, T0.plusSeconds(60)));
+        assertEquals(ContainerState.RUNNING, down.previous());
+        assertEquals(ContainerState.EXITED, down.current());
+        assertTrue(down.isUpOrDown());
+
+        // A slow listing taken before the change must not flip it back
+        assertNull(store.observe(container("a1", ContainerState.RUNNING, T0.plusSeconds(45))));
+
+        // Same name, new ID: a recreated container starts fresh
+        assertNull(store.observe(container("b2", ContainerState.RUNNING, T0.plusSeconds(90))));
+    }
+
+    @Test
+    void concurrentObserversSeeTheTransitionExactlyOnce() throws Exception {
+        ContainerStateStore store = new ContainerStateStore();
+        store.observe(container("a1", ContainerState.RUNNING, T0));
+
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger transitions = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int s = 1; s <= 1000; s++) {
+                        ContainerState state = s % 2 == 0 ? ContainerState.RUNNING : ContainerState.EXITED;
+                        if (store.observe(container("a1", state, T0.plusSeconds(s))) != null) {
+                            transitions.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Every thread replays the same 1000 alternating observations, each one is a change
+        // and only the thread that applies it first may report it
+        assertEquals(1000, transitions.get());
+    }
+
+    @Test
+    void fullListingEvictsVanishedContainersButKeepsNewerOnes() {
+        ContainerStateStore store = new ContainerStateStore();
+        store.observe(container("a1", ContainerState.RUNNING, T0));
+        store.observe(container("b2", ContainerState.RUNNING, T0));
+
+        // c3 was seen by the event stream after the listing started
+        store.observe(container("c3", ContainerState.RUNNING, T0.plusSeconds(10)));
+        store.retainListed("pi-1", List.of(container("a1", ContainerState.RUNNING, T0.plusSeconds(5))), T0.plusSeconds(5));
+
+        assertEquals(2, store.size());
+        assertNull(store.observe(container("b2", ContainerState.EXITED, T0.plusSeconds(20))));
+    }
+
+    @Test
+    void removalIsNotUndoneByAListingTakenBeforeIt() {
+        ContainerStateStore store = new ContainerStateStore();
+        store.observe(container("a1", ContainerState.RUNNING, T0));
+        store.remove("pi-1", "a1", T0.plusSeconds(10));
+        assertEquals(0, store.size());
+
+        // A listing that started before the destroy still shows the container
+        assertNull(store.observe(container("a1", ContainerState.RUNNING, T0.plusSeconds(20)), T0.plusSeconds(5)));
+        assertNull(store.observe(container("a1", ContainerState.RUNNING, T0.plusSeconds(10))));
+        assertEquals(0, store.size());
+        assertTrue(store.removedAfter("pi-1", "a1", T0.plusSeconds(5)));
+
+        // The next listing of the host no longer shows it and drops the tombstone
+        store.retainListed("pi-1", List.of(), T0.plusSeconds(30));
+        assertFalse(store.removedAfter("pi-1", "a1", T0.plusSeconds(5)));
+    }
+
+    @Test
+    void laterObservationReplacesTheTombstoneAsAFirstSighting() {
+        ContainerStateStore store = new ContainerStateStore();
+        store.observe(container("a1", ContainerState.RUNNING, T0));
+        store.remove("pi-1", "a1", T0.plusSeconds(10));
+
+        assertNull(store.observe(container("a1", ContainerState.EXITED, T0.plusSeconds(20))));
+        assertEquals(1, store.size());
+        assertFalse(store.removedAfter("pi-1", "a1", T0));
+    }
+}
@@ -0,0 +1,129 @@
+package com.ellipsis.homelabmonitor.service;
+
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import com.ellipsis.homelabmonitor.model.DailyReport;
+import com.ellipsis.homelabmonitor.model.LiveUptimeCheckpoint;
+import com.ellipsis.homelabmonitor.repository.LiveUptimeCheckpointStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LiveUptimeTrackerTest {
+
+    private final LiveUptimeCheckpointStore store = mock(LiveUptimeCheckpointStore.class);
+    private final LiveUptimeTracker tracker = new LiveUptimeTracker(store);
+
+    private static ContainerInfo row(String host, String name, String status, LocalDateTime at) {
+        return ContainerInfo.builder().host(host).id(name).name(name).status(status).checkedAt(at).build();
+    }
+
+    private static DailyReport report(List<DailyReport> reports, String name) {
+        return reports.stream().filter(r -> r.getContainerName().equals(name)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void countsPollsAndRunningToStoppedTransitions() {
+        LocalDateTime t = LocalDate.now().atStartOfDay().plusHours(1);
+        tracker.record(List.of(row("pi-1", "web", "Up 1 hour", t)));
+        tracker.record(List.of(row("pi-1", "web", "Exited (1) 1 second ago", t.plusSeconds(30))));
+        tracker.record(List.of(row("pi-1", "web", "Up 2 seconds", t.plusSeconds(60))));
+        tracker.record(List.of(row("pi-1", "web", "Up 32 seconds", t.plusSeconds(90))));
+
+        DailyReport web = report(tracker.today(), "web");
+        assertEquals(4, web.getTotalSnapshots());
+        assertEquals(3, web.getRunningSnapshots());
+        assertEquals(75.0, web.getUptimePercentage());
+        assertEquals(1, web.getIncidentCount());
+    }
+
+    @Test
+    void sameNameOnTwoHostsIsTrackedPerHostForIncidents() {
+        LocalDateTime t = LocalDate.now().atStartOfDay().plusHours(1);
+        tracker.record(List.of(row("pi-1", "db", "Up 1 hour", t), row("pi-2", "db", "Exited (0) 1 hour ago", t)));
+        tracker.record(List.of(row("pi-1", "db", "Up 1 hour", t.plusSeconds(30)),
+                row("pi-2", "db", "Exited (0) 1 hour ago", t.plusSeconds(30))));
+
+        assertEquals(0, report(tracker.today(), "db").getIncidentCount());
+    }
+
+    @Test
+    void sealWritesThatDaysCountersAndForgetsThem() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        tracker.record(List.of(row("pi-1", "web", "Up 1 hour", yesterday.atTime(23, 59, 30))));
+        tracker.record(List.of(row("pi-1", "web", "Up 1 hour", LocalDate.now().atTime(0, 0, 0))));
+
+        assertTrue(tracker.seal(yesterday));
+        verify(store).seal(eq(yesterday), argThat(reports -> reports.size() == 1
+                && reports.get(0).getTotalSnapshots() == 1));
+
+        assertFalse(tracker.seal(yesterday));
+        assertEquals(1, report(tracker.today(), "web").getTotalSnapshots());
+    }
+
+    @Test
+    void failedRestoreIsRetriedBeforeTheFirstCheckpoint() {
+        LocalDate today = LocalDate.now();
+        LiveUptimeCheckpoint stored = LiveUptimeCheckpoint.builder().reportDate(today).containerName("web")
+                .totalSnapshots(10).runningSnapshots(9).incidentCount(1).lastStatus("Up 5 minutes").build();
+        when(store.findSince(any())).thenThrow(new IllegalStateException("connection refused"))
+                .thenReturn(List.of(stored));
+
+        tracker.restore();
+        tracker.record(List.of(row("pi-1", "web", "Up 6 minutes", today.atStartOfDay().plusHours(1))));
+        // A checkpoint now would overwrite the stored 10 polls with 1, so it retries the restore first
+        tracker.checkpoint();
+
+        verify(store, times(2)).findSince(today.minusDays(1));
+        verify(store).save(argThat(checkpoints -> checkpoints.size() == 1
+                && checkpoints.get(0).getTotalSnapshots() == 11
+                && checkpoints.get(0).getIncidentCount() == 1));
+        assertEquals(11, report(tracker.today(), "web").getTotalSnapshots());
+    }
+
+    @Test
+    void nothingIsCheckpointedOrSealedWhileTheRestoreKeepsFailing() {
+        when(store.findSince(any())).thenThrow(new IllegalStateException("connection refused"));
+        LocalDate today = LocalDate.now();
+        tracker.restore();
+        tracker.record(List.of(row("pi-1", "web", "Up 1 hour", today.atStartOfDay().plusHours(1))));
+
+        tracker.checkpoint();
+        assertFalse(tracker.seal(today));
+
+        verify(store, never()).save(any());
+        verify(store, never()).seal(any(), any());
+    }
+
+    @Test
+    void checkpointDuringASealDoesNotWriteTheSealedDayBack() throws Exception {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        tracker.record(List.of(row("pi-1", "web", "Up 1 hour", yesterday.atTime(23, 59, 30))));
+        tracker.record(List.of(row("pi-1", "web", "Up 1 hour", LocalDate.now().atTime(0, 0, 0))));
+
+        // The scheduled checkpoint fires while the seal transaction is still open
+        Thread[] checkpoint = new Thread[1];
+        doAnswer(invocation -> {
+            checkpoint[0] = new Thread(tracker::checkpoint);
+            checkpoint[0].start();
+            checkpoint[0].join(200);
+            assertTrue(checkpoint[0].isAlive(), "checkpoint must wait for the seal");
+            return null;
+        }).when(store).seal(eq(yesterday), any());
+
+        assertTrue(tracker.seal(yesterday));
+        checkpoint[0].join(5000);
+
+        // A straggling poll for the sealed day isn't checkpointed either
+        tracker.record(List.of(row("pi-1", "web", "Up 1 hour", yesterday.atTime(23, 59, 59))));
+        tracker.checkpoint();
+
+        verify(store, times(2)).save(argThat(checkpoints -> !checkpoints.isEmpty()
+                && checkpoints.stream().allMatch(c -> c.getReportDate().isAfter(yesterday))));
+    }
+}
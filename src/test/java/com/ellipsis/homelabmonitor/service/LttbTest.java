@@ -0,0 +1,43 @@
+package com.ellipsis.homelabmonitor.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LttbTest {
+
+    private static List<double[]> series(int size, int spikeAt) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> new double[]{i, i == spikeAt ? 0.0 : 1.0})
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void returnsInputWhenAlreadySmallEnough() {
+        List<double[]> points = series(10, -1);
+        assertSame(points, Lttb.downsample(points, 10, p -> p[0], p -> p[1]));
+    }
+
+    @Test
+    void capsPointsAndKeepsEndpoints() {
+        List<double[]> points = series(1000, -1);
+        List<double[]> sampled = Lttb.downsample(points, 50, p -> p[0], p -> p[1]);
+
+        assertEquals(50, sampled.size());
+        assertSame(points.get(0), sampled.get(0));
+        assertSame(points.get(999), sampled.get(49));
+    }
+
+    @Test
+    void keepsAnIsolatedDip() {
+        // A single bucket of downtime is exactly what a chart must not lose
+        List<double[]> points = series(1000, 537);
+        List<double[]> sampled = Lttb.downsample(points, 20, p -> p[0], p -> p[1]);
+
+        assertTrue(sampled.contains(points.get(537)));
+    }
+}
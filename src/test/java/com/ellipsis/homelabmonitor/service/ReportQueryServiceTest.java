@@ -0,0 +1,68 @@
+package com.ellipsis.homelabmonitor.service;
+
+import com.ellipsis.homelabmonitor.model.DailyReport;
+import com.ellipsis.homelabmonitor.repository.DailyReportRepository;
+import com.ellipsis.homelabmonitor.repository.MonthlyReportRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReportQueryServiceTest {
+
+    private final DailyReportRepository dailyRepository = mock(DailyReportRepository.class);
+    private final MonthlyReportRepository monthlyRepository = mock(MonthlyReportRepository.class);
+    private final ReportQueryService service =
+            new ReportQueryService(dailyRepository, monthlyRepository, new SimpleMeterRegistry(), 1000);
+
+    private static DailyReport report(LocalDate date) {
+        return DailyReport.builder().containerName("jellyfin").reportDate(date).build();
+    }
+
+    @Test
+    void closedDaysAreServedFromCache() {
+        LocalDate day = LocalDate.now().minusDays(3);
+        when(dailyRepository.findByReportDate(day)).thenReturn(List.of(report(day)));
+
+        assertEquals(1, service.getDailyReports(day).size());
+        assertEquals(1, service.getDailyReports(day).size());
+
+        verify(dailyRepository, times(1)).findByReportDate(day);
+    }
+
+    @Test
+    void openPeriodsAlwaysHitTheDatabase() {
+        LocalDate today = LocalDate.now();
+        when(dailyRepository.findByReportDateBetween(today.minusDays(1), today)).thenReturn(List.of());
+        YearMonth thisMonth = YearMonth.now();
+
+        service.getDailyReports(today.minusDays(1), today);
+        service.getDailyReports(today.minusDays(1), today);
+        service.getMonthlyReports(thisMonth.getYear(), thisMonth.getMonthValue());
+        service.getMonthlyReports(thisMonth.getYear(), thisMonth.getMonthValue());
+
+        verify(dailyRepository, times(2)).findByReportDateBetween(today.minusDays(1), today);
+        verify(monthlyRepository, times(2)).findByReportMonthAndReportYear(thisMonth.getMonthValue(), thisMonth.getYear());
+    }
+
+    @Test
+    void regeneratingADayEvictsEveryRangeCoveringIt() {
+        LocalDate day = LocalDate.now().minusDays(5);
+        LocalDate otherDay = LocalDate.now().minusDays(20);
+        when(dailyRepository.findByReportDateBetween(any(), any())).thenReturn(List.of(report(day)));
+
+        service.getDailyReports(day.minusDays(2), day.plusDays(2));
+        service.getDailyReports(otherDay, otherDay.plusDays(1));
+        service.evictDaily(day);
+        service.getDailyReports(day.minusDays(2), day.plusDays(2));
+        service.getDailyReports(otherDay, otherDay.plusDays(1));
+
+        verify(dailyRepository, times(2)).findByReportDateBetween(day.minusDays(2), day.plusDays(2));
+        verify(dailyRepository, times(1)).findByReportDateBetween(otherDay, otherDay.plusDays(1));
+    }
+}
@@ -0,0 +1,62 @@
+package com.ellipsis.homelabmonitor.service;
+
+import com.ellipsis.homelabmonitor.model.ContainerState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampleRingTest {
+
+    @Test
+    void keepsTheNewestSamplesOldestFirst() {
+        SampleRing ring = new SampleRing(4);
+        for (int i = 0; i < 10; i++) {
+            ring.append(i * 1000L, i % 2 == 0 ? ContainerState.RUNNING : ContainerState.EXITED, i, i * 10L, 0);
+        }
+
+        List<Long> times = new ArrayList<>();
+        ring.read(0, (time, state, cpu, memory) -> {
+            times.add(time);
+            assertEquals(time / 100, memory);
+            assertEquals(time / 1000 % 2 == 0 ? ContainerState.RUNNING : ContainerState.EXITED, state);
+        });
+        assertEquals(List.of(6000L, 7000L, 8000L, 9000L), times);
+        assertEquals(2, ring.read(8000, (time, state, cpu, memory) -> { }));
+    }
+
+    @Test
+    void skipsSamplesCloserThanTheResolution() {
+        SampleRing ring = new SampleRing(10);
+        assertTrue(ring.append(0, ContainerState.RUNNING, 1, 1, 5000));
+        assertFalse(ring.append(4999, ContainerState.RUNNING, 1, 1, 5000));
+        assertTrue(ring.append(5000, ContainerState.RUNNING, 1, 1, 5000));
+        assertEquals(2, ring.read(0, (time, state, cpu, memory) -> { }));
+    }
+
+    @Test
+    void readersNeverSeeTornSamples() throws Exception {
+        SampleRing ring = new SampleRing(64);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> torn = new AtomicReference<>();
+
+        // Every field of a sample is derived from its time, so a mixed-up slot is detectable
+        Thread writer = new Thread(() -> {
+            for (long t = 1; t <= 500_000; t++) ring.append(t, ContainerState.RUNNING, t % 1000, t * 3, 0);
+            done.set(true);
+        });
+        writer.start();
+        while (!done.get()) {
+            ring.read(0, (time, state, cpu, memory) -> {
+                if (memory != time * 3 || cpu != time % 1000) torn.set(time + "/" + cpu + "/" + memory);
+            });
+        }
+        writer.join();
+
+        assertNull(torn.get());
+    }
+}
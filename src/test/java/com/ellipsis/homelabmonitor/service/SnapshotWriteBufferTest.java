@@ -0,0 +1,212 @@
+package com.ellipsis.homelabmonitor.service;
+
+import com.ellipsis.homelabmonitor.event.ContainerEvent;
+import com.ellipsis.homelabmonitor.model.ContainerInfo;
+import com.ellipsis.homelabmonitor.model.ContainerState;
+import com.ellipsis.homelabmonitor.repository.ContainerSnapshotWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotWriteBufferTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    // Records written rows, fails while the "database" is down
+    private static class FakeWriter extends ContainerSnapshotWriter {
+        final List<ContainerInfo> written = new ArrayList<>();
+        final List<ContainerEvent> events = new ArrayList<>();
+        boolean down;
+
+        FakeWriter() {
+            super(null, null, 500);
+        }
+
+        @Override
+        public int write(List<ContainerInfo> containers, List<ContainerEvent> events) {
+            if (down) throw new IllegalStateException("connection refused");
+            written.addAll(containers);
+            this.events.addAll(events);
+            return containers.size();
+        }
+    }
+
+    private static List<ContainerInfo> rows(int from, int to) {
+        return IntStream.range(from, to)
+                .mapToObj(i -> ContainerInfo.builder()
+                        .host("local")
+                        .id("id-" + i)
+                        .name("container-" + i)
+                        .status("Up 1 hour")
+                        .checkedAt(LocalDateTime.of(2026, 1, 1, 0, 0))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    // Enqueueing a full batch also asks the background flusher for a flush, which moves the
+    // spill file aside while it tries to replay. Waits for it to be back in place.
+    private static List<String> spilledLines(Path spill) throws Exception {
+        Path replaying = spill.resolveSibling(spill.getFileName() + ".replaying");
+        for (int i = 0; i < 100 && (!Files.exists(spill) || Files.exists(replaying)); i++) {
+            Thread.sleep(10);
+        }
+        return Files.readAllLines(spill);
+    }
+
+    private SnapshotWriteBuffer buffer(FakeWriter writer, int capacity, SnapshotWriteBuffer.OverflowPolicy policy, Path spill) {
+        return new SnapshotWriteBuffer(writer, new ObjectMapper().findAndRegisterModules(), registry,
+                capacity, 4, 60000, policy, 10, spill == null ? "" : spill.toString(), 100);
+    }
+
+    @Test
+    void flushWritesQueuedRowsInOrder() {
+        FakeWriter writer = new FakeWriter();
+        SnapshotWriteBuffer buffer = buffer(writer, 100, SnapshotWriteBuffer.OverflowPolicy.DROP_OLDEST, null);
+
+        buffer.enqueue(rows(0, 10));
+        buffer.flush();
+
+        assertEquals(0, buffer.depth());
+        assertEquals(rows(0, 10), writer.written);
+    }
+
+    @Test
+    void dropOldestKeepsNewestRowsWhenFull() {
+        FakeWriter writer = new FakeWriter();
+        SnapshotWriteBuffer buffer = buffer(writer, 5, SnapshotWriteBuffer.OverflowPolicy.DROP_OLDEST, null);
+
+        buffer.enqueue(rows(0, 8));
+        buffer.flush();
+
+        assertEquals(rows(3, 8), writer.written);
+        assertEquals(3, registry.counter("monitor.writebehind.rows.dropped").count());
+    }
+
+    @Test
+    void failedBatchIsRequeuedWithoutSpillFile() {
+        FakeWriter writer = new FakeWriter();
+        SnapshotWriteBuffer buffer = buffer(writer, 100, SnapshotWriteBuffer.OverflowPolicy.DROP_NEWEST, null);
+
+        writer.down = true;
+        buffer.enqueue(rows(0, 6));
+        buffer.flush();
+        assertEquals(6, buffer.depth());
+
+        writer.down = false;
+        buffer.flush();
+        assertEquals(rows(0, 6), writer.written);
+    }
+
+    @Test
+    void spillsWhileDatabaseIsDownAndReplaysWhenItReturns(@TempDir Path dir) throws Exception {
+        Path spill = dir.resolve("snapshots.ndjson");
+        FakeWriter writer = new FakeWriter();
+        SnapshotWriteBuffer buffer = buffer(writer, 100, SnapshotWriteBuffer.OverflowPolicy.DROP_OLDEST, spill);
+
+        writer.down = true;
+        buffer.enqueue(rows(0, 6));
+        buffer.flush();
+        buffer.enqueue(rows(6, 9));
+        buffer.flush();
+
+        assertEquals(0, buffer.depth());
+        assertEquals(9, spilledLines(spill).size());
+
+        writer.down = false;
+        buffer.enqueue(rows(9, 10));
+        buffer.flush();
+
+        assertEquals(rows(0, 10), writer.written);
+        assertFalse(Files.exists(spill));
+        assertEquals(9, registry.counter("monitor.writebehind.rows.replayed").count());
+    }
+
+    @Test
+    void replaysFileLeftByAnInterruptedReplayBeforeTheSpillFile(@TempDir Path dir) throws Exception {
+        Path spill = dir.resolve("snapshots.ndjson");
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+        List<String> leftover = new ArrayList<>();
+        for (ContainerInfo row : rows(0, 3)) leftover.add(mapper.writeValueAsString(row));
+        Files.write(dir.resolve("snapshots.ndjson.replaying"), leftover);
+
+        FakeWriter writer = new FakeWriter();
+        SnapshotWriteBuffer buffer = buffer(writer, 100, SnapshotWriteBuffer.OverflowPolicy.DROP_OLDEST, spill);
+
+        // A new spill file next to the leftover must not replace it
+        writer.down = true;
+        buffer.enqueue(rows(3, 5));
+        buffer.flush();
+        assertEquals(5, spilledLines(spill).size());
+
+        writer.down = false;
+        buffer.flush();
+
+        assertEquals(rows(0, 5), writer.written);
+        assertFalse(Files.exists(spill));
+        assertFalse(Files.exists(dir.resolve("snapshots.ndjson.replaying")));
+    }
+
+    @Test
+    void eventsAreHeldWhileDatabaseIsDownAndWrittenWithTheNextBatch(@TempDir Path dir) {
+        FakeWriter writer = new FakeWriter();
+        SnapshotWriteBuffer buffer = buffer(writer, 100, SnapshotWriteBuffer.OverflowPolicy.DROP_OLDEST,
+                dir.resolve("snapshots.ndjson"));
+        ContainerEvent down = ContainerEvent.builder().containerName("jellyfin").eventType("CONTAINER_DOWN").build();
+
+        writer.down = true;
+        buffer.enqueue(rows(0, 2));
+        buffer.enqueueEvent(down);
+        buffer.flush();
+        assertTrue(writer.events.isEmpty());
+
+        writer.down = false;
+        buffer.flush();
+
+        assertEquals(List.of(down), writer.events);
+        assertEquals(rows(0, 2), writer.written);
+    }
+
+    @Test
+    void eventsSurviveAnOutageLongerThanTheQueueAndARestart(@TempDir Path dir) {
+        Path spill = dir.resolve("snapshots.ndjson");
+        FakeWriter writer = new FakeWriter();
+        writer.down = true;
+        SnapshotWriteBuffer buffer = new SnapshotWriteBuffer(writer, new ObjectMapper().findAndRegisterModules(),
+                registry, 100, 4, 60000, SnapshotWriteBuffer.OverflowPolicy.DROP_OLDEST, 10, spill.toString(), 2);
+
+        List<ContainerEvent> sent = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ContainerEvent event = ContainerEvent.builder()
+                    .host("local")
+                    .containerName("container-" + i)
+                    .currentStatus(ContainerState.EXITED)
+                    .occurredAt(LocalDateTime.of(2026, 1, 1, 0, i))
+                    .eventType("CONTAINER_DOWN")
+                    .build();
+            sent.add(event);
+            buffer.enqueueEvent(event);
+        }
+        buffer.stop();
+        assertTrue(Files.exists(dir.resolve("snapshots.ndjson.events")));
+
+        // A new instance after the restart finds them on disk
+        writer.down = false;
+        SnapshotWriteBuffer restarted = buffer(writer, 100, SnapshotWriteBuffer.OverflowPolicy.DROP_OLDEST, spill);
+        restarted.flush();
+
+        assertEquals(sent, writer.events);
+        assertEquals(0, registry.counter("monitor.writebehind.events.dropped").count());
+        assertFalse(Files.exists(dir.resolve("snapshots.ndjson.events")));
+    }
+}